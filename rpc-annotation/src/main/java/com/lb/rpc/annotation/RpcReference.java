@@ -185,4 +185,31 @@ public @interface RpcReference {
      * @return 服务分组名称，默认为空字符串表示默认分组
      */
     String group() default "";
-}
\ No newline at end of file
+
+    /**
+     * 压缩类型
+     * <p>
+     * 指定请求消息体的压缩方式，只有序列化后的消息体达到压缩阈值并且压缩后确实变小时才会压缩。
+     * </p>
+     *
+     * <p>支持的压缩类型：</p>
+     * <ul>
+     *   <li>none - 不压缩</li>
+     *   <li>lz4 - LZ4压缩，速度快</li>
+     *   <li>deflate - Deflate压缩，压缩率高</li>
+     * </ul>
+     *
+     * @return 压缩类型，默认为"none"
+     */
+    String compressType() default "none";
+
+    /**
+     * 压缩阈值
+     * <p>
+     * 序列化后的请求消息体不小于该字节数时才尝试压缩，避免小消息压缩带来的额外开销。
+     * </p>
+     *
+     * @return 压缩阈值（字节），默认为2048
+     */
+    int compressThreshold() default 2048;
+}
@@ -82,4 +82,69 @@ public @interface RpcService {
      */
     int weight() default 0;
 
-}
\ No newline at end of file
+    /**
+     * 压缩类型
+     * <p>
+     * 指定响应消息体的压缩方式，支持none、lz4、deflate。
+     * 只有序列化后的消息体达到压缩阈值并且压缩后确实变小时才会压缩。
+     * </p>
+     *
+     * @return 压缩类型，默认为"none"
+     */
+    String compressType() default "none";
+
+    /**
+     * 压缩阈值
+     * <p>
+     * 序列化后的响应消息体不小于该字节数时才尝试压缩。
+     * </p>
+     *
+     * @return 压缩阈值（字节），默认为2048
+     */
+    int compressThreshold() default 2048;
+
+    /**
+     * 执行业务请求的线程池类型
+     * <p>
+     * 支持fixed、virtual、direct。fixed使用固定大小的平台线程池；virtual每个请求一个虚拟线程，
+     * 适合阻塞的方法，运行在Java 21以下版本时回退到fixed；direct直接在I/O线程中执行，只适用于不阻塞的简单方法。
+     * 指定的类型与服务端配置不同时，该服务的请求在I/O线程中反序列化后再分派到对应的线程池。
+     * </p>
+     *
+     * @return 线程池类型，默认为空字符串表示使用服务端配置的线程池
+     */
+    String executorType() default "";
+
+    /**
+     * 服务隔离线程池的并发数
+     * <p>
+     * 大于0时该服务使用独立的线程池（舱壁），最多同时执行该数量的请求，慢服务不会占满其他服务共用的线程池。
+     * 并发数和等待队列都满时立即响应BULKHEAD_FULL状态，不会继续排队。
+     * </p>
+     *
+     * @return 并发数，默认为0表示与其他服务共用线程池
+     */
+    int executorThreads() default 0;
+
+    /**
+     * 服务隔离线程池的等待队列大小
+     * <p>
+     * 只在executorThreads大于0时生效。
+     * </p>
+     *
+     * @return 等待队列大小，默认为0表示不排队
+     */
+    int executorQueues() default 0;
+
+    /**
+     * 方法级别的隔离线程池
+     * <p>
+     * 每一项的格式为"方法名:并发数"或"方法名:并发数:等待队列大小"，例如"query:8:64"，
+     * 配置的方法使用独立的线程池，优先于服务级别的线程池，同名的重载方法共用一个线程池。
+     * </p>
+     *
+     * @return 方法级别的线程池配置，默认不配置
+     */
+    String[] methodExecutors() default {};
+
+}
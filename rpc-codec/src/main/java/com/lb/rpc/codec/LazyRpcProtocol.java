@@ -0,0 +1,79 @@
+package com.lb.rpc.codec;
+
+import com.lb.rpc.protocol.RpcProtocol;
+import com.lb.rpc.protocol.header.RpcHeader;
+import com.lb.rpc.serialization.api.Serialization;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * 延迟反序列化的RPC协议对象
+ * <p>
+ * 解码器只完成拆包，消息体以独立的ByteBuf保存，第一次调用getBody()时才反序列化并释放缓冲区，
+ * 从而把反序列化从Netty的I/O线程转移到调用getBody()的业务线程。
+ * 如果消息体始终不会被读取，需要调用release()释放缓冲区。
+ */
+public class LazyRpcProtocol<T> extends RpcProtocol<T> {
+    private static final long serialVersionUID = -3473925811623530167L;
+
+    /**
+     * 未反序列化的消息体，反序列化或释放后置为null
+     */
+    private transient volatile ByteBuf data;
+
+    private final transient Serialization serialization;
+
+    private final transient Class<T> bodyClass;
+
+    public LazyRpcProtocol(RpcHeader header, ByteBuf data, Serialization serialization, Class<T> bodyClass) {
+        this.setHeader(header);
+        this.data = data;
+        this.serialization = serialization;
+        this.bodyClass = bodyClass;
+    }
+
+    @Override
+    public T getBody() {
+        if (data != null) {
+            synchronized (this) {
+                ByteBuf buf = data;
+                if (buf != null) {
+                    try {
+                        super.setBody(serialization.deserialize(buf, bodyClass));
+                    } finally {
+                        buf.release();
+                        data = null;
+                    }
+                }
+            }
+        }
+        return super.getBody();
+    }
+
+    @Override
+    public void setBody(T body) {
+        this.release();
+        super.setBody(body);
+    }
+
+    /**
+     * 消息体是否已经反序列化或释放
+     */
+    public boolean isMaterialized() {
+        return data == null;
+    }
+
+    /**
+     * 丢弃尚未反序列化的消息体，释放缓冲区
+     */
+    public void release() {
+        if (data != null) {
+            synchronized (this) {
+                ByteBuf buf = data;
+                if (buf != null) {
+                    data = null;
+                    buf.release();
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.lb.rpc.codec;
 
+import com.lb.rpc.codec.helper.SerializationHelper;
+import com.lb.rpc.protocol.header.RpcHeader;
 import com.lb.rpc.serialization.api.Serialization;
-import com.lb.rpc.spi.loader.ExtensionLoader;
 
 /**
  * RPC编解码器接口
@@ -10,7 +11,18 @@ import com.lb.rpc.spi.loader.ExtensionLoader;
 public interface RpcCodec {
 
     default Serialization getSerialization(String serializationType) {
-        return ExtensionLoader.getExtension(Serialization.class, serializationType);
+        return SerializationHelper.getSerialization(serializationType);
+    }
+
+    default Serialization getSerialization(byte serializationId) {
+        return SerializationHelper.getSerialization(serializationId);
+    }
+
+    /**
+     * 获取消息头对应的序列化实现，消息头中有序列化ID时直接按ID查找
+     */
+    default Serialization getSerialization(RpcHeader header) {
+        return SerializationHelper.getSerialization(header.getSerializationId(), header.getSerializationType());
     }
 
 }
@@ -1,10 +1,13 @@
 package com.lb.rpc.codec;
 
+import com.lb.rpc.codec.helper.CompressorHelper;
 import com.lb.rpc.common.utils.SerializationUtils;
+import com.lb.rpc.compress.api.Compressor;
 import com.lb.rpc.constants.RpcConstants;
 import com.lb.rpc.protocol.RpcProtocol;
 import com.lb.rpc.protocol.enumeration.RpcType;
 import com.lb.rpc.protocol.header.RpcHeader;
+import com.lb.rpc.protocol.meta.MethodTable;
 import com.lb.rpc.protocol.request.RpcRequest;
 import com.lb.rpc.protocol.response.RpcResponse;
 import com.lb.rpc.serialization.api.Serialization;
@@ -20,6 +23,30 @@ import java.util.List;
  * 继承Netty的ByteToMessageDecoder，负责将字节流解码为RpcProtocol对象
  */
 public class RpcDecoder extends ByteToMessageDecoder implements RpcCodec {
+
+    /**
+     * 是否延迟反序列化，开启后解码器只拆包，消息体在业务线程第一次读取时再反序列化
+     */
+    private final boolean lazyDecode;
+
+    /**
+     * 允许的最大消息体长度，压缩的消息体同时限制解压后的长度，超过时关闭连接
+     */
+    private final int maxBodyLength;
+
+    public RpcDecoder() {
+        this(false);
+    }
+
+    public RpcDecoder(boolean lazyDecode) {
+        this(lazyDecode, RpcConstants.MAX_BODY_LENGTH_DEFAULT);
+    }
+
+    public RpcDecoder(boolean lazyDecode, int maxBodyLength) {
+        this.lazyDecode = lazyDecode;
+        this.maxBodyLength = maxBodyLength;
+    }
+
     /**
      * 解码方法，将字节流转换为RPC协议对象
      *
@@ -31,87 +58,62 @@ public class RpcDecoder extends ByteToMessageDecoder implements RpcCodec {
     @Override
     public final void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
         try {
-            // 检查可读字节数是否足够读取完整的消息头
-            if (in.readableBytes() < RpcConstants.HEADER_TOTAL_LEN) {
+            // 至少需要读取魔数才能确定消息头版本
+            if (in.readableBytes() < 2) {
                 return; // 数据不完整，等待更多数据
             }
+            // 读取魔数（2字节），只读取不移动读索引
+            short magic = in.getShort(in.readerIndex());
             // 标记当前读取位置，用于回退
             in.markReaderIndex();
-
-            // 读取魔数（2字节）
-            short magic = in.readShort();
-            // 验证魔数是否正确
-            if (magic != RpcConstants.MAGIC) {
+            RpcHeader header;
+            if (magic == RpcConstants.MAGIC_V2) {
+                // 检查可读字节数是否足够读取完整的v2消息头
+                if (in.readableBytes() < RpcConstants.HEADER_V2_TOTAL_LEN) {
+                    return;
+                }
+                header = this.decodeHeaderV2(in);
+            } else if (magic == RpcConstants.MAGIC) {
+                // 检查可读字节数是否足够读取完整的v1消息头
+                if (in.readableBytes() < RpcConstants.HEADER_TOTAL_LEN) {
+                    return;
+                }
+                header = this.decodeHeaderV1(in);
+            } else {
                 throw new IllegalArgumentException("magic number is illegal, " + magic);
             }
 
-            // 读取消息类型（1字节）
-            byte msgType = in.readByte();
-            // 读取状态码（1字节）
-            byte status = in.readByte();
-            // 读取请求ID（8字节）
-            long requestId = in.readLong();
-
-            // 读取序列化类型字符串（固定长度）
-            ByteBuf serializationTypeByteBuf = in.readBytes(SerializationUtils.MAX_SERIALIZATION_TYPE_LENGTH);
-            String serializationType = SerializationUtils.subString(serializationTypeByteBuf.toString(CharsetUtil.UTF_8));
-
-            // 读取数据长度（4字节）
-            int dataLength = in.readInt();
             // 检查剩余可读字节数是否足够读取完整的数据部分
+            int dataLength = header.getMsgLen();
+            if (dataLength < 0 || dataLength > maxBodyLength) {
+                throw new IllegalArgumentException("message length is illegal, " + dataLength + ", max body length: " + maxBodyLength);
+            }
             if (in.readableBytes() < dataLength) {
                 // 数据不完整，重置读取位置，等待更多数据
                 in.resetReaderIndex();
                 return;
             }
-            // 读取序列化后的数据
-            byte[] data = new byte[dataLength];
-            in.readBytes(data);
-
-            // 根据消息类型获取对应的枚举
-            RpcType msgTypeEnum = RpcType.findByType(msgType);
-            if (msgTypeEnum == null) {
-                return; // 未知消息类型，忽略
+            if ((header.getFlags() & RpcConstants.FLAG_METHOD_ID) != 0) {
+                // 请求在消息体之前携带方法id，服务提供者据此选择线程池，不需要反序列化消息体
+                if (dataLength < 4) {
+                    throw new IllegalArgumentException("message length is illegal, " + dataLength + ", method id is missing");
+                }
+                header.setMethodId(in.readInt());
+                dataLength -= 4;
             }
-
-            // 构建RPC消息头对象
-            RpcHeader header = new RpcHeader();
-            header.setMagic(magic);
-            header.setStatus(status);
-            header.setRequestId(requestId);
-            header.setMsgType(msgType);
-            header.setSerializationType(serializationType);
-            header.setMsgLen(dataLength);
-            //TODO Serialization是扩展点 - 未来可支持多种序列化方式
-            Serialization serialization = getSerialization(serializationType);
-
-            // 根据消息类型进行不同的处理
-            switch (msgTypeEnum) {
-                case REQUEST:
-                    // 处理RPC请求消息
-                    RpcRequest request = serialization.deserialize(data, RpcRequest.class);
-                    if (request != null) {
-                        // 构建请求协议对象
-                        RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
-                        protocol.setHeader(header);
-                        protocol.setBody(request);
-                        out.add(protocol);   // 添加到输出列表
-                    }
-                    break;
-                case RESPONSE:
-                    // 处理RPC响应消息
-                    RpcResponse response = serialization.deserialize(data, RpcResponse.class);
-                    if (response != null) {
-                        // 构建响应协议对象
-                        RpcProtocol<RpcResponse> protocol = new RpcProtocol<>();
-                        protocol.setHeader(header);
-                        protocol.setBody(response);
-                        out.add(protocol);  // 添加到输出列表
-                    }
-                    break;
-                case HEARTBEAT:
-                    // TODO 处理心跳消息
-                    break;
+            // 按消息头中的序列化ID直接获取缓存的序列化实现
+            Serialization serialization = getSerialization(header);
+            // 读取消息体，压缩的消息体在这里解压
+            ByteBuf data = this.readBody(ctx, header, in, dataLength);
+            if (lazyDecode) {
+                // 延迟解码时消息体缓冲区交由LazyRpcProtocol释放
+                decodeLazy(header, serialization, data, out);
+                return;
+            }
+            try {
+                decodeBody(header, serialization, data, out);
+            } finally {
+                data.release();
             }
         } catch (Exception e) {
             System.err.println("[RpcDecoder] decode error: " + e.getMessage());
@@ -119,4 +121,186 @@ public class RpcDecoder extends ByteToMessageDecoder implements RpcCodec {
             ctx.close();
         }
     }
+
+    /**
+     * 解码v2消息头，包括数据长度，调用前需确保可读字节数不少于v2消息头长度
+     */
+    private RpcHeader decodeHeaderV2(ByteBuf in) {
+        RpcHeader header = new RpcHeader();
+        header.setMagic(in.readShort());
+        header.setVersion(in.readByte());
+        header.setMsgType(in.readByte());
+        header.setStatus(in.readByte());
+        header.setFlags(in.readByte());
+        byte serializationId = in.readByte();
+        String serializationType = SerializationUtils.getSerializationType(serializationId);
+        if (serializationType == null) {
+            throw new IllegalArgumentException("serialization id is illegal, " + serializationId);
+        }
+        header.setSerializationId(serializationId);
+        header.setSerializationType(serializationType);
+        header.setRequestId(in.readLong());
+        header.setMsgLen(in.readInt());
+        return header;
+    }
+
+    /**
+     * 解码v1消息头，包括数据长度，调用前需确保可读字节数不少于v1消息头长度
+     */
+    private RpcHeader decodeHeaderV1(ByteBuf in) {
+        RpcHeader header = new RpcHeader();
+        header.setMagic(in.readShort());
+        header.setVersion(RpcConstants.VERSION);
+        header.setMsgType(in.readByte());
+        header.setStatus(in.readByte());
+        header.setRequestId(in.readLong());
+        // 序列化类型（固定长度），优先与已注册的补0字节直接比较，不分配中间对象
+        int index = in.readerIndex();
+        byte serializationId = this.matchPaddedSerializationType(in, index);
+        if (serializationId != RpcConstants.SERIALIZATION_ID_UNKNOWN) {
+            header.setSerializationType(SerializationUtils.getSerializationType(serializationId));
+        } else {
+            header.setSerializationType(SerializationUtils.subString(
+                    in.toString(index, SerializationUtils.MAX_SERIALIZATION_TYPE_LENGTH, CharsetUtil.UTF_8)));
+        }
+        header.setSerializationId(serializationId);
+        in.skipBytes(SerializationUtils.MAX_SERIALIZATION_TYPE_LENGTH);
+        header.setMsgLen(in.readInt());
+        return header;
+    }
+
+    /**
+     * 在已注册的序列化类型中查找与index处16字节相同的序列化ID
+     */
+    private byte matchPaddedSerializationType(ByteBuf in, int index) {
+        for (byte id = RpcConstants.SERIALIZATION_ID_JDK; id <= RpcConstants.SERIALIZATION_ID_PROTOSTUFF; id++) {
+            byte[] padded = SerializationUtils.getPaddedSerializationType(id);
+            if (padded != null && padded.length == SerializationUtils.MAX_SERIALIZATION_TYPE_LENGTH
+                    && this.matches(in, index, padded)) {
+                return id;
+            }
+        }
+        return RpcConstants.SERIALIZATION_ID_UNKNOWN;
+    }
+
+    private boolean matches(ByteBuf in, int index, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (in.getByte(index + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取消息体，返回的缓冲区由调用方释放
+     * <p>
+     * 未压缩时直接解码的消息体为累积缓冲区的切片；延迟解码时拷贝到独立的池化缓冲区，
+     * 避免消息体在业务线程中排队时累积缓冲区无法复用。
+     * 压缩的消息体为：压缩前长度(4byte) + 压缩数据，解压到新的池化缓冲区。
+     */
+    private ByteBuf readBody(ChannelHandlerContext ctx, RpcHeader header, ByteBuf in, int dataLength) {
+        byte compressId = (byte) (header.getFlags() & RpcConstants.FLAG_COMPRESS_MASK);
+        if (compressId == RpcConstants.COMPRESS_ID_NONE) {
+            return lazyDecode ? in.readBytes(dataLength) : in.readRetainedSlice(dataLength);
+        }
+        ByteBuf compressed = in.readSlice(dataLength);
+        int originalLength = compressed.readInt();
+        // 压缩前长度由对端发送，先检查再按该长度分配缓冲区，避免很小的消息触发超大的内存分配
+        if (originalLength < 0 || originalLength > maxBodyLength) {
+            throw new IllegalArgumentException("original length is illegal, " + originalLength + ", max body length: " + maxBodyLength);
+        }
+        Compressor compressor = CompressorHelper.getCompressor(compressId);
+        ByteBuf data = ctx.alloc().buffer(originalLength);
+        try {
+            compressor.decompress(compressed, data, originalLength);
+            if (data.readableBytes() != originalLength) {
+                throw new IllegalArgumentException("decompressed length " + data.readableBytes() + " does not match original length " + originalLength);
+            }
+        } catch (RuntimeException e) {
+            data.release();
+            throw e;
+        }
+        return data;
+    }
+
+    /**
+     * 延迟解码消息体，消息体缓冲区由LazyRpcProtocol持有，在业务线程中反序列化
+     */
+    private void decodeLazy(RpcHeader header, Serialization serialization, ByteBuf data, List<Object> out) {
+        RpcType msgTypeEnum = RpcType.findByType(header.getMsgType());
+        if (msgTypeEnum == null) {
+            data.release();
+            return; // 未知消息类型，忽略
+        }
+        switch (msgTypeEnum) {
+            case REQUEST:
+                out.add(new LazyRpcProtocol<>(header, data, serialization, RpcRequest.class));
+                break;
+            case RESPONSE:
+                out.add(new LazyRpcProtocol<>(header, data, serialization, RpcResponse.class));
+                break;
+            case METHOD_TABLE:
+                // 方法表只在连接建立后交换一次，直接在I/O线程中反序列化
+                try {
+                    decodeBody(header, serialization, data, out);
+                } finally {
+                    data.release();
+                }
+                break;
+            case HEARTBEAT:
+                // TODO 处理心跳消息
+                data.release();
+                break;
+        }
+    }
+
+    /**
+     * 解码消息体，data为消息体
+     */
+    private void decodeBody(RpcHeader header, Serialization serialization, ByteBuf data, List<Object> out) {
+        // 根据消息类型获取对应的枚举
+        RpcType msgTypeEnum = RpcType.findByType(header.getMsgType());
+        if (msgTypeEnum == null) {
+            return; // 未知消息类型，忽略
+        }
+
+        // 根据消息类型进行不同的处理
+        switch (msgTypeEnum) {
+            case REQUEST:
+                // 处理RPC请求消息
+                RpcRequest request = serialization.deserialize(data, RpcRequest.class);
+                if (request != null) {
+                    // 构建请求协议对象
+                    RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+                    protocol.setHeader(header);
+                    protocol.setBody(request);
+                    out.add(protocol);   // 添加到输出列表
+                }
+                break;
+            case RESPONSE:
+                // 处理RPC响应消息
+                RpcResponse response = serialization.deserialize(data, RpcResponse.class);
+                if (response != null) {
+                    // 构建响应协议对象
+                    RpcProtocol<RpcResponse> protocol = new RpcProtocol<>();
+                    protocol.setHeader(header);
+                    protocol.setBody(response);
+                    out.add(protocol);  // 添加到输出列表
+                }
+                break;
+            case METHOD_TABLE:
+                MethodTable methodTable = serialization.deserialize(data, MethodTable.class);
+                if (methodTable != null) {
+                    RpcProtocol<MethodTable> protocol = new RpcProtocol<>();
+                    protocol.setHeader(header);
+                    protocol.setBody(methodTable);
+                    out.add(protocol);
+                }
+                break;
+            case HEARTBEAT:
+                // TODO 处理心跳消息
+                break;
+        }
+    }
 }
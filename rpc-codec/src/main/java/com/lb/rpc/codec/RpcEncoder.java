@@ -1,12 +1,16 @@
 package com.lb.rpc.codec;
 
+import com.lb.rpc.codec.helper.CompressorHelper;
 import com.lb.rpc.common.utils.SerializationUtils;
+import com.lb.rpc.constants.RpcConstants;
 import com.lb.rpc.protocol.RpcProtocol;
+import com.lb.rpc.protocol.enumeration.RpcType;
 import com.lb.rpc.protocol.header.RpcHeader;
 import com.lb.rpc.serialization.api.Serialization;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.util.CharsetUtil;
 
 /**
  * RPC编码器
@@ -26,25 +30,115 @@ public class RpcEncoder extends MessageToByteEncoder<RpcProtocol<Object>> implem
     protected void encode(ChannelHandlerContext ctx, RpcProtocol<Object> msg, ByteBuf byteBuf) throws Exception {
         // 获取消息头
         RpcHeader header = msg.getHeader();
+        // 获取序列化类型
+        String serializationType = header.getSerializationType();
+        // 按消息头中的序列化ID直接获取缓存的序列化实现
+        Serialization serialization = getSerialization(header);
+        // 请求头由RpcHeaderFactory设置了序列化ID，响应头复用解码后的请求头，只有手动构建的消息头才需要按类型查找
+        byte serializationId = header.getSerializationId();
+        if (serializationId == RpcConstants.SERIALIZATION_ID_UNKNOWN) {
+            serializationId = SerializationUtils.getSerializationId(serializationType);
+        }
+        // v2消息头只能携带已注册的序列化ID，未注册的序列化类型以及v1的请求仍然按照v1消息头编码
+        boolean v2 = header.getVersion() >= RpcConstants.VERSION_V2 && serializationId != RpcConstants.SERIALIZATION_ID_UNKNOWN;
+        // 只有v2的请求携带方法id，响应复用请求头时不写入
+        boolean withMethodId = v2 && header.getMethodId() > 0 && header.getMsgType() == (byte) RpcType.REQUEST.getType();
+        // 标志位中的压缩ID和方法id按本次实际写入的内容重新设置，响应复用请求头时不会沿用请求的标志位
+        byte flags = (byte) (header.getFlags() & ~(RpcConstants.FLAG_COMPRESS_MASK | RpcConstants.FLAG_METHOD_ID));
+        if (withMethodId) {
+            flags |= RpcConstants.FLAG_METHOD_ID;
+        }
+        // v2消息头中标志位位于魔数、版本、消息类型、状态之后
+        int flagsIndex = byteBuf.writerIndex() + 5;
+        if (v2) {
+            this.encodeHeaderV2(header, flags, serializationId, byteBuf);
+        } else {
+            this.encodeHeaderV1(header, serializationType, serializationId, byteBuf);
+        }
+        // 预留数据长度（4字节），消息体写完后回填
+        int lengthIndex = byteBuf.writerIndex();
+        byteBuf.writeInt(0);
+        if (withMethodId) {
+            // 方法id位于消息体之前，不参与压缩
+            byteBuf.writeInt(header.getMethodId());
+        }
+        // 只有v2消息头能携带压缩ID
+        byte compressId = v2 ? CompressorHelper.getCompressId(header.getCompressType()) : RpcConstants.COMPRESS_ID_NONE;
+        if (compressId == RpcConstants.COMPRESS_ID_NONE) {
+            // 将消息体直接序列化到输出缓冲区
+            serialization.serialize(msg.getBody(), byteBuf);
+        } else if (this.encodeCompressedBody(ctx, msg.getBody(), serialization, compressId, header.getCompressThreshold(), byteBuf)) {
+            byteBuf.setByte(flagsIndex, flags | compressId);
+        }
+        // 回填数据长度
+        byteBuf.setInt(lengthIndex, byteBuf.writerIndex() - lengthIndex - 4);
+    }
+
+    /**
+     * 序列化并按需压缩消息体，压缩后的消息体为：压缩前长度(4byte) + 压缩数据
+     *
+     * @return 消息体是否被压缩，未达到压缩阈值或压缩后没有变小时写入原始数据并返回false
+     */
+    private boolean encodeCompressedBody(ChannelHandlerContext ctx, Object body, Serialization serialization,
+                                         byte compressId, int compressThreshold, ByteBuf byteBuf) {
+        ByteBuf raw = ctx.alloc().buffer();
+        try {
+            serialization.serialize(body, raw);
+            int originalLength = raw.readableBytes();
+            if (originalLength >= compressThreshold) {
+                int bodyIndex = byteBuf.writerIndex();
+                byteBuf.writeInt(originalLength);
+                CompressorHelper.getCompressor(compressId).compress(raw, byteBuf);
+                if (byteBuf.writerIndex() - bodyIndex < originalLength) {
+                    return true;
+                }
+                // 压缩后没有变小，回退后写入原始数据
+                byteBuf.writerIndex(bodyIndex);
+            }
+            byteBuf.writeBytes(raw);
+            return false;
+        } finally {
+            raw.release();
+        }
+    }
+
+    /**
+     * 编码v2消息头，数据长度除外
+     */
+    private void encodeHeaderV2(RpcHeader header, byte flags, byte serializationId, ByteBuf byteBuf) {
+        // 写入魔数（2字节）
+        byteBuf.writeShort(RpcConstants.MAGIC_V2);
+        // 写入版本（1字节）
+        byteBuf.writeByte(RpcConstants.VERSION_V2);
+        // 写入消息类型（1字节）
+        byteBuf.writeByte(header.getMsgType());
+        // 写入状态码（1字节）
+        byteBuf.writeByte(header.getStatus());
+        // 写入标志位（1字节）
+        byteBuf.writeByte(flags);
+        // 写入序列化ID（1字节）
+        byteBuf.writeByte(serializationId);
+        // 写入请求ID（8字节）
+        byteBuf.writeLong(header.getRequestId());
+    }
+
+    /**
+     * 编码v1消息头，数据长度除外
+     */
+    private void encodeHeaderV1(RpcHeader header, String serializationType, byte serializationId, ByteBuf byteBuf) {
         // 写入魔数(2byte)  -用于识别协议
-        byteBuf.writeShort(header.getMagic());
+        byteBuf.writeShort(RpcConstants.MAGIC);
         // 写入消息类型（1字节）- 请求/响应/心跳等
         byteBuf.writeByte(header.getMsgType());
         // 写入状态码（1字节）- 成功/失败等状态
         byteBuf.writeByte(header.getStatus());
         // 写入请求ID（8字节）- 用于请求响应匹配
         byteBuf.writeLong(header.getRequestId());
-        // 获取序列化类型
-        String serializationType = header.getSerializationType();
-        //TODO Serialization是扩展点 - 未来可支持多种序列化方式
-        Serialization serialization = getSerialization(serializationType);
-        // 写入序列化类型字符串（固定长度，UTF-8编码）
-        byteBuf.writeBytes(SerializationUtils.paddingString(serializationType).getBytes("UTF-8"));
-        // 序列化消息体
-        byte[] data = serialization.serialize(msg.getBody());
-        // 写入数据长度（4字节）
-        byteBuf.writeInt(data.length);
-        // 写入序列化后的数据
-        byteBuf.writeBytes(data);
+        // 写入序列化类型字符串（固定长度，UTF-8编码），已注册的序列化类型直接使用缓存的字节
+        byte[] paddedSerializationType = SerializationUtils.getPaddedSerializationType(serializationId);
+        if (paddedSerializationType == null) {
+            paddedSerializationType = SerializationUtils.paddingString(serializationType).getBytes(CharsetUtil.UTF_8);
+        }
+        byteBuf.writeBytes(paddedSerializationType);
     }
 }
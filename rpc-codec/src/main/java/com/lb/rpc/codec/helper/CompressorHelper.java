@@ -0,0 +1,64 @@
+package com.lb.rpc.codec.helper;
+
+import com.lb.rpc.compress.api.Compressor;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.spi.loader.ExtensionLoader;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 压缩类型与v2消息头标志位中压缩ID的映射，以及按压缩ID缓存的压缩实现
+ */
+public class CompressorHelper {
+
+    /**
+     * 压缩ID -> 压缩类型
+     */
+    private static final String[] COMPRESS_TYPES = new String[RpcConstants.COMPRESS_ID_LZ4 + 1];
+
+    /**
+     * 压缩ID -> 压缩实现
+     */
+    private static final AtomicReferenceArray<Compressor> compressors = new AtomicReferenceArray<>(COMPRESS_TYPES.length);
+
+    static {
+        COMPRESS_TYPES[RpcConstants.COMPRESS_ID_DEFLATE] = RpcConstants.COMPRESS_DEFLATE;
+        COMPRESS_TYPES[RpcConstants.COMPRESS_ID_LZ4] = RpcConstants.COMPRESS_LZ4;
+    }
+
+    /**
+     * 获取压缩类型对应的压缩ID
+     *
+     * @param compressType 压缩类型
+     * @return 压缩ID，不压缩或未注册的压缩类型返回{@link RpcConstants#COMPRESS_ID_NONE}
+     */
+    public static byte getCompressId(String compressType) {
+        if (compressType == null) {
+            return RpcConstants.COMPRESS_ID_NONE;
+        }
+        for (byte id = 1; id < COMPRESS_TYPES.length; id++) {
+            if (compressType.equals(COMPRESS_TYPES[id])) {
+                return id;
+            }
+        }
+        return RpcConstants.COMPRESS_ID_NONE;
+    }
+
+    /**
+     * 根据压缩ID获取压缩实现
+     *
+     * @param compressId 压缩ID
+     * @return 压缩实现
+     */
+    public static Compressor getCompressor(byte compressId) {
+        if (compressId <= 0 || compressId >= COMPRESS_TYPES.length) {
+            throw new IllegalArgumentException("compress id is illegal, " + compressId);
+        }
+        Compressor compressor = compressors.get(compressId);
+        if (compressor == null) {
+            compressor = ExtensionLoader.getExtension(Compressor.class, COMPRESS_TYPES[compressId]);
+            compressors.set(compressId, compressor);
+        }
+        return compressor;
+    }
+}
@@ -0,0 +1,77 @@
+package com.lb.rpc.codec.helper;
+
+import com.lb.rpc.common.utils.SerializationUtils;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.serialization.api.Serialization;
+import com.lb.rpc.spi.loader.ExtensionLoader;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 编解码时序列化实现的缓存：
+ * 已注册序列化ID的实现按ID存放在数组中，每帧只需一次数组读取；
+ * 未注册ID的序列化类型按名称缓存，均只在首次使用时通过ExtensionLoader加载
+ */
+public class SerializationHelper {
+
+    /**
+     * 序列化ID -> 序列化实现
+     */
+    private static final AtomicReferenceArray<Serialization> serializations = new AtomicReferenceArray<>(RpcConstants.SERIALIZATION_ID_PROTOSTUFF + 1);
+
+    /**
+     * 序列化类型 -> 序列化实现，仅存放没有序列化ID的自定义扩展
+     */
+    private static final Map<String, Serialization> serializationMap = new ConcurrentHashMap<>();
+
+    /**
+     * 根据序列化ID获取序列化实现
+     *
+     * @param serializationId 序列化ID
+     * @return 序列化实现
+     */
+    public static Serialization getSerialization(byte serializationId) {
+        String serializationType = SerializationUtils.getSerializationType(serializationId);
+        if (serializationType == null) {
+            throw new IllegalArgumentException("serialization id is illegal, " + serializationId);
+        }
+        Serialization serialization = serializations.get(serializationId);
+        if (serialization == null) {
+            serialization = ExtensionLoader.getExtension(Serialization.class, serializationType);
+            serializations.set(serializationId, serialization);
+        }
+        return serialization;
+    }
+
+    /**
+     * 根据序列化类型获取序列化实现
+     *
+     * @param serializationType 序列化类型
+     * @return 序列化实现
+     */
+    public static Serialization getSerialization(String serializationType) {
+        return getSerialization(SerializationUtils.getSerializationId(serializationType), serializationType);
+    }
+
+    /**
+     * 优先根据序列化ID获取序列化实现，序列化ID未知时再根据序列化类型获取
+     *
+     * @param serializationId   序列化ID
+     * @param serializationType 序列化类型
+     * @return 序列化实现
+     */
+    public static Serialization getSerialization(byte serializationId, String serializationType) {
+        if (serializationId != RpcConstants.SERIALIZATION_ID_UNKNOWN) {
+            return getSerialization(serializationId);
+        }
+        // 序列化类型为空时与ExtensionLoader保持一致，使用默认的序列化实现
+        String key = SerializationUtils.transNullToEmpty(serializationType);
+        Serialization serialization = serializationMap.get(key);
+        if (serialization == null) {
+            serialization = serializationMap.computeIfAbsent(key, (type) -> ExtensionLoader.getExtension(Serialization.class, type));
+        }
+        return serialization;
+    }
+}
@@ -0,0 +1,235 @@
+package com.lb.rpc.common.collection;
+
+/**
+ * long类型key的并发Map，用于按请求id保存等待响应的请求
+ * <p>
+ * key直接保存在long数组中，不需要装箱，也不为每个元素创建节点；按key的hash分段加锁，每段是一个线性探测的开放寻址表，
+ * 删除时把后面同一探测链上的元素前移，不留删除标记，put和remove交替进行时表不会退化。
+ * 只支持非null的value，不支持按value查找
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 256;
+
+    private final Segment<V>[] segments;
+
+    private final int segmentShift;
+
+    public ConcurrentLongObjectMap() {
+        this(DEFAULT_CONCURRENCY_LEVEL, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param concurrencyLevel 分段数，向上取整为2的幂
+     * @param initialCapacity  初始容量，平均分配到每个分段
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectMap(int concurrencyLevel, int initialCapacity) {
+        int segmentCount = tableSizeFor(Math.max(concurrencyLevel, 1));
+        this.segments = new Segment[segmentCount];
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+        int segmentCapacity = tableSizeFor(Math.max(initialCapacity / segmentCount, 1) * 2);
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity);
+        }
+    }
+
+    public V get(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).get(key, (int) hash);
+    }
+
+    /**
+     * @return key之前对应的value，不存在时返回null
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        long hash = hash(key);
+        return segmentFor(hash).put(key, (int) hash, value);
+    }
+
+    /**
+     * @return 被删除的value，不存在时返回null
+     */
+    public V remove(long key) {
+        long hash = hash(key);
+        return segmentFor(hash).remove(key, (int) hash);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * 当前所有key的快照，获取过程中并发修改的key可能包含也可能不包含
+     */
+    public long[] keys() {
+        long[] keys = new long[0];
+        int count = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                if (count + segment.size > keys.length) {
+                    long[] grown = new long[Math.max(keys.length * 2, count + segment.size)];
+                    System.arraycopy(keys, 0, grown, 0, count);
+                    keys = grown;
+                }
+                count = segment.copyKeys(keys, count);
+            }
+        }
+        if (count == keys.length) {
+            return keys;
+        }
+        long[] result = new long[count];
+        System.arraycopy(keys, 0, result, 0, count);
+        return result;
+    }
+
+    private Segment<V> segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * 请求id是连续递增的，乘以黄金分割常数打散，高位用于选择分段，低位用于分段内定位
+     */
+    private static long hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * 分段，所有方法在分段的锁内执行
+     */
+    private static final class Segment<V> {
+
+        private long[] keys;
+
+        /**
+         * 与keys下标对应，null表示空位
+         */
+        private Object[] values;
+
+        private int size;
+
+        private Segment(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V get(long key, int hash) {
+            int mask = keys.length - 1;
+            for (int index = hash & mask; values[index] != null; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    return (V) values[index];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V put(long key, int hash, V value) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            for (; values[index] != null; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    V previous = (V) values[index];
+                    values[index] = value;
+                    return previous;
+                }
+            }
+            keys[index] = key;
+            values[index] = value;
+            // 装载因子不超过1/2，线性探测的探测链保持很短
+            if (++size > keys.length >>> 1) {
+                this.rehash(keys.length << 1);
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V remove(long key, int hash) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            for (; values[index] != null; index = (index + 1) & mask) {
+                if (keys[index] == key) {
+                    V previous = (V) values[index];
+                    this.shiftBack(index);
+                    size--;
+                    return previous;
+                }
+            }
+            return null;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        int copyKeys(long[] target, int offset) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    target[offset++] = keys[i];
+                }
+            }
+            return offset;
+        }
+
+        /**
+         * 删除index位置的元素，并把之后探测链上不在自己初始位置与空位之间的元素前移填补空位
+         */
+        private void shiftBack(int index) {
+            int mask = keys.length - 1;
+            int gap = index;
+            for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+                int home = (int) hash(keys[next]) & mask;
+                // home不在(gap, next]区间内时，元素可以移动到gap
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    values[gap] = values[next];
+                    gap = next;
+                }
+            }
+            values[gap] = null;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            long[] newKeys = new long[capacity];
+            Object[] newValues = new Object[capacity];
+            int mask = capacity - 1;
+            for (int i = 0; i < oldValues.length; i++) {
+                if (oldValues[i] != null) {
+                    int index = (int) hash(oldKeys[i]) & mask;
+                    while (newValues[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    newKeys[index] = oldKeys[i];
+                    newValues[index] = oldValues[i];
+                }
+            }
+            this.keys = newKeys;
+            this.values = newValues;
+        }
+    }
+}
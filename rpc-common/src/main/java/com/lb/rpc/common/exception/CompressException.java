@@ -0,0 +1,35 @@
+package com.lb.rpc.common.exception;
+
+public class CompressException extends RuntimeException {
+
+    private static final long serialVersionUID = -6250436384436531082L;
+
+    /**
+     * Instantiates a new Compress exception.
+     *
+     * @param e the e
+     */
+    public CompressException(final Throwable e) {
+        super(e);
+    }
+
+    /**
+     * Instantiates a new Compress exception.
+     *
+     * @param message the message
+     */
+    public CompressException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Instantiates a new Compress exception.
+     *
+     * @param message   the message
+     * @param throwable the throwable
+     */
+    public CompressException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.lb.rpc.common.exception;
+
+public class ConnectionException extends RuntimeException {
+
+    private static final long serialVersionUID = -2871093475128305614L;
+
+    /**
+     * Instantiates a new Connection exception.
+     *
+     * @param e the e
+     */
+    public ConnectionException(final Throwable e) {
+        super(e);
+    }
+
+    /**
+     * Instantiates a new Connection exception.
+     *
+     * @param message the message
+     */
+    public ConnectionException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Instantiates a new Connection exception.
+     *
+     * @param message   the message
+     * @param throwable the throwable
+     */
+    public ConnectionException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+
+}
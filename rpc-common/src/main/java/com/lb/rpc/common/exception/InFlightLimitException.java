@@ -0,0 +1,35 @@
+package com.lb.rpc.common.exception;
+
+public class InFlightLimitException extends RuntimeException {
+
+    private static final long serialVersionUID = 4315892306146097612L;
+
+    /**
+     * Instantiates a new In flight limit exception.
+     *
+     * @param e the e
+     */
+    public InFlightLimitException(final Throwable e) {
+        super(e);
+    }
+
+    /**
+     * Instantiates a new In flight limit exception.
+     *
+     * @param message the message
+     */
+    public InFlightLimitException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Instantiates a new In flight limit exception.
+     *
+     * @param message   the message
+     * @param throwable the throwable
+     */
+    public InFlightLimitException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+
+}
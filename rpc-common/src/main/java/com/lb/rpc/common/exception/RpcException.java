@@ -0,0 +1,29 @@
+package com.lb.rpc.common.exception;
+
+/**
+ * 服务提供者返回错误响应或者调用超时时抛出的异常
+ */
+public class RpcException extends RuntimeException {
+
+    private static final long serialVersionUID = 3186734625316420651L;
+
+    /**
+     * Instantiates a new Rpc exception.
+     *
+     * @param message the message
+     */
+    public RpcException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Instantiates a new Rpc exception.
+     *
+     * @param message   the message
+     * @param throwable the throwable
+     */
+    public RpcException(final String message, final Throwable throwable) {
+        super(message, throwable);
+    }
+
+}
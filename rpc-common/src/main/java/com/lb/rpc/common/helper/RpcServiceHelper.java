@@ -17,4 +17,25 @@ public class RpcServiceHelper {
     public static String buildServiceKey(String serviceName, String serviceVersion, String group) {
         return String.join("#", serviceName, serviceVersion, group);
     }
+
+    /**
+     * 拼接方法签名key，服务提供者和服务消费者按相同的格式拼接，用于方法表的协商
+     *
+     * @param serviceKey     服务key
+     * @param methodName     方法名称
+     * @param parameterTypes 参数类型
+     * @return 服务key#方法名称(参数类型1,参数类型2)
+     */
+    public static String buildMethodKey(String serviceKey, String methodName, Class<?>[] parameterTypes) {
+        StringBuilder builder = new StringBuilder(serviceKey).append('#').append(methodName).append('(');
+        if (parameterTypes != null) {
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(parameterTypes[i].getName());
+            }
+        }
+        return builder.append(')').toString();
+    }
 }
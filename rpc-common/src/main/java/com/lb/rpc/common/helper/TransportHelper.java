@@ -0,0 +1,61 @@
+package com.lb.rpc.common.helper;
+
+import com.lb.rpc.constants.RpcConstants;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 网络传输方式的选择，服务提供者和服务消费者共用
+ * 配置为epoll或auto时，当前系统支持epoll则使用Linux原生epoll传输（默认边缘触发），否则回退到NIO
+ */
+public class TransportHelper {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransportHelper.class);
+
+    /**
+     * 是否使用epoll传输
+     *
+     * @param transportType 传输方式：nio、epoll、auto
+     * @return 配置允许且当前系统支持epoll时返回true
+     */
+    public static boolean useEpoll(String transportType) {
+        if (RpcConstants.TRANSPORT_NIO.equals(transportType) || transportType == null) {
+            return false;
+        }
+        if (Epoll.isAvailable()) {
+            return true;
+        }
+        if (RpcConstants.TRANSPORT_EPOLL.equals(transportType)) {
+            LOGGER.warn("epoll transport is not available, fall back to nio, cause: {}", String.valueOf(Epoll.unavailabilityCause()));
+        }
+        return false;
+    }
+
+    /**
+     * 创建事件循环组
+     *
+     * @param epoll   是否使用epoll传输
+     * @param threads 线程数，0表示使用Netty默认的线程数（CPU核数 * 2）
+     */
+    public static EventLoopGroup newEventLoopGroup(boolean epoll, int threads) {
+        return epoll ? new EpollEventLoopGroup(threads) : new NioEventLoopGroup(threads);
+    }
+
+    public static Class<? extends SocketChannel> getSocketChannelClass(boolean epoll) {
+        return epoll ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    public static Class<? extends ServerSocketChannel> getServerSocketChannelClass(boolean epoll) {
+        return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+    }
+}
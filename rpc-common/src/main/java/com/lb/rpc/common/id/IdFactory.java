@@ -1,11 +1,37 @@
 package com.lb.rpc.common.id;
 
+import com.lb.rpc.constants.RpcConstants;
+
 import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 请求id生成器
+ * 每个线程一次从全局计数器中取出一段连续的id，之后在线程内递增分配，全局计数器每分配一段id才被修改一次，
+ * 多个线程同时发送请求时不会在同一个缓存行上竞争。id在进程内唯一，请求过载转发到其他连接时不会与该连接上的请求冲突，
+ * 同一个线程发送的请求id是连续的
+ */
 public class IdFactory {
     private final static AtomicLong REQUEST_ID_GEN = new AtomicLong(0);
 
-    public static Long getId() {
-        return REQUEST_ID_GEN.incrementAndGet();
+    private final static ThreadLocal<IdBlock> ID_BLOCK = ThreadLocal.withInitial(IdBlock::new);
+
+    public static long getId() {
+        return ID_BLOCK.get().next();
+    }
+
+    /**
+     * 线程持有的一段id，只在所属线程中访问
+     */
+    private static class IdBlock {
+        private long next;
+        private long limit;
+
+        private long next() {
+            if (next == limit) {
+                limit = REQUEST_ID_GEN.addAndGet(RpcConstants.REQUEST_ID_BLOCK_SIZE) + 1;
+                next = limit - RpcConstants.REQUEST_ID_BLOCK_SIZE;
+            }
+            return next++;
+        }
     }
 }
@@ -1,24 +1,108 @@
 package com.lb.rpc.common.threadpool;
 
+import com.lb.rpc.constants.RpcConstants;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * 服务消费者的客户端线程池，执行RPCFuture的回调、连接建立后的请求发送和过载转发等任务
+ * 线程池在第一次使用时创建，由进程中所有的RpcConsumer共用，init只在创建之前调用时生效，shutdown之后再次使用时重新创建。
+ * 提交任务的线程可能是Netty的I/O线程或者超时检查的时间轮线程，任务不能在提交任务的线程中执行：
+ * 队列已满时任务转交给单独的溢出线程执行，溢出队列同样有界，也满时submit抛出RejectedExecutionException，
+ * 由调用方以异常结束受影响的RPCFuture，不会无限堆积任务，也不会阻塞I/O线程
+ */
 public class ClientThreadPool {
 
-    private static ThreadPoolExecutor threadPoolExecutor;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClientThreadPool.class);
+
+    private static final Executor EXECUTOR = ClientThreadPool::submit;
+
+    private static volatile ThreadPoolExecutor threadPoolExecutor;
+
+    private static volatile ThreadPoolExecutor overflowExecutor;
+
+    /**
+     * 按指定的线程数和队列大小创建线程池，溢出线程数和溢出队列大小使用默认值，线程池已经创建时不做修改
+     *
+     * @param threads   线程数
+     * @param queueSize 队列大小
+     */
+    public static void init(int threads, int queueSize) {
+        init(threads, queueSize, RpcConstants.CLIENT_OVERFLOW_THREADS_DEFAULT, RpcConstants.CLIENT_OVERFLOW_QUEUE_SIZE_DEFAULT);
+    }
 
-    static {
-        threadPoolExecutor = new ThreadPoolExecutor(16, 16, 600L,
-                TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(65535));
+    /**
+     * 按指定的线程数和队列大小创建线程池，线程池已经创建时不做修改
+     *
+     * @param threads           线程数
+     * @param queueSize         队列大小
+     * @param overflowThreads   队列已满时执行溢出任务的线程数
+     * @param overflowQueueSize 溢出队列大小
+     */
+    public static synchronized void init(int threads, int queueSize, int overflowThreads, int overflowQueueSize) {
+        if (threadPoolExecutor == null) {
+            ThreadPoolExecutor overflow = new ThreadPoolExecutor(overflowThreads, overflowThreads, 600L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(overflowQueueSize), new DefaultThreadFactory("rpc-client-overflow"));
+            overflowExecutor = overflow;
+            threadPoolExecutor = new ThreadPoolExecutor(threads, threads, 600L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueSize), new DefaultThreadFactory("rpc-client"), (task, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("client thread pool is shutdown");
+                }
+                try {
+                    overflow.execute(task);
+                } catch (RejectedExecutionException e) {
+                    throw new RejectedExecutionException("client thread pool and its overflow queue are full", e);
+                }
+            });
+        }
     }
 
+    /**
+     * 提交任务，任务抛出的异常记录日志后忽略，不会终止线程池的线程
+     *
+     * @throws RejectedExecutionException 线程池和溢出队列都已满或者线程池已关闭，任务没有执行
+     */
     public static void submit(Runnable task) {
-        threadPoolExecutor.submit(task);
+        getThreadPoolExecutor().execute(() -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                LOGGER.error("client thread pool task failed.", e);
+            }
+        });
+    }
+
+    /**
+     * 以Executor的形式使用线程池
+     */
+    public static Executor getExecutor() {
+        return EXECUTOR;
+    }
+
+    public static synchronized void shutdown() {
+        if (threadPoolExecutor != null) {
+            threadPoolExecutor.shutdown();
+            overflowExecutor.shutdown();
+            threadPoolExecutor = null;
+            overflowExecutor = null;
+        }
     }
 
-    public static void shutdown() {
-        threadPoolExecutor.shutdown();
+    private static ThreadPoolExecutor getThreadPoolExecutor() {
+        ThreadPoolExecutor executor = threadPoolExecutor;
+        if (executor == null) {
+            init(RpcConstants.CLIENT_THREADS_DEFAULT, RpcConstants.CLIENT_QUEUE_SIZE_DEFAULT);
+            executor = threadPoolExecutor;
+        }
+        return executor;
     }
 
 }
@@ -1,5 +1,8 @@
 package com.lb.rpc.common.utils;
 
+import com.lb.rpc.constants.RpcConstants;
+
+import java.nio.charset.StandardCharsets;
 import java.util.stream.IntStream;
 
 /**
@@ -9,11 +12,81 @@ public class SerializationUtils {
 
     private static final String PADDING_STRING = "0";
 
+    private static final byte PADDING_BYTE = '0';
+
     /**
      * 约定序列化类型最大长度为16
      */
     public static final int MAX_SERIALIZATION_TYPE_LENGTH = 16;
 
+    /**
+     * 序列化ID -> 序列化类型，下标即为v2消息头中的序列化ID
+     */
+    private static final String[] SERIALIZATION_TYPES = new String[RpcConstants.SERIALIZATION_ID_PROTOSTUFF + 1];
+
+    /**
+     * 序列化ID -> v1消息头中补0后的序列化类型字节，编解码v1消息头时直接使用，避免每次拼接字符串
+     */
+    private static final byte[][] PADDED_SERIALIZATION_TYPES = new byte[SERIALIZATION_TYPES.length][];
+
+    static {
+        register(RpcConstants.SERIALIZATION_ID_JDK, RpcConstants.SERIALIZATION_JDK);
+        register(RpcConstants.SERIALIZATION_ID_JSON, RpcConstants.SERIALIZATION_JSON);
+        register(RpcConstants.SERIALIZATION_ID_HESSIAN2, RpcConstants.SERIALIZATION_HESSIAN2);
+        register(RpcConstants.SERIALIZATION_ID_FST, RpcConstants.SERIALIZATION_FST);
+        register(RpcConstants.SERIALIZATION_ID_KRYO, RpcConstants.SERIALIZATION_KRYO);
+        register(RpcConstants.SERIALIZATION_ID_PROTOSTUFF, RpcConstants.SERIALIZATION_PROTOSTUFF);
+    }
+
+    private static void register(byte id, String serializationType) {
+        SERIALIZATION_TYPES[id] = serializationType;
+        PADDED_SERIALIZATION_TYPES[id] = paddingString(serializationType).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 获取序列化类型对应的序列化ID
+     *
+     * @param serializationType 序列化类型
+     * @return 序列化ID，未注册的序列化类型返回{@link RpcConstants#SERIALIZATION_ID_UNKNOWN}
+     */
+    public static byte getSerializationId(String serializationType) {
+        if (serializationType == null) {
+            return RpcConstants.SERIALIZATION_ID_UNKNOWN;
+        }
+        for (byte id = 1; id < SERIALIZATION_TYPES.length; id++) {
+            if (serializationType.equals(SERIALIZATION_TYPES[id])) {
+                return id;
+            }
+        }
+        return RpcConstants.SERIALIZATION_ID_UNKNOWN;
+    }
+
+    /**
+     * 获取序列化ID对应的序列化类型
+     *
+     * @param serializationId 序列化ID
+     * @return 序列化类型，未注册的序列化ID返回null
+     */
+    public static String getSerializationType(byte serializationId) {
+        if (serializationId <= 0 || serializationId >= SERIALIZATION_TYPES.length) {
+            return null;
+        }
+        return SERIALIZATION_TYPES[serializationId];
+    }
+
+    /**
+     * 获取序列化ID对应的补0后的序列化类型字节数组，返回的数组不可修改
+     *
+     * @param serializationId 序列化ID
+     * @return 补0后的字节数组，未注册的序列化ID返回null
+     */
+    public static byte[] getPaddedSerializationType(byte serializationId) {
+        if (serializationId <= 0 || serializationId >= PADDED_SERIALIZATION_TYPES.length) {
+            return null;
+        }
+        return PADDED_SERIALIZATION_TYPES[serializationId];
+    }
+
     /**
      * 为长度不足16的字符串后面补0
      *
@@ -32,14 +105,18 @@ public class SerializationUtils {
     }
 
     /**
-     * 字符串去0 操作
+     * 字符串去0 操作，只去掉末尾补齐的0，保留序列化类型中间的0
      *
      * @param str 原始字符串
      * @return 去0后的字符串
      */
     public static String subString(String str) {
         str = transNullToEmpty(str);
-        return str.replace(PADDING_STRING, "");
+        int end = str.length();
+        while (end > 0 && str.charAt(end - 1) == PADDING_BYTE) {
+            end--;
+        }
+        return str.substring(0, end);
     }
 
     public static String transNullToEmpty(String str) {
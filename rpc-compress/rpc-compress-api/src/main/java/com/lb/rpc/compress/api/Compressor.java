@@ -0,0 +1,21 @@
+package com.lb.rpc.compress.api;
+
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.spi.annotation.SPI;
+import io.netty.buffer.ByteBuf;
+
+@SPI(RpcConstants.COMPRESS_DEFLATE)
+public interface Compressor {
+
+    /**
+     * 压缩in中的全部可读字节，从out当前的写索引开始写入，不修改in的读索引
+     */
+    void compress(ByteBuf in, ByteBuf out);
+
+    /**
+     * 解压in中的全部可读字节，从out当前的写索引开始写入，不修改in的读索引
+     *
+     * @param originalLength 压缩前的字节数
+     */
+    void decompress(ByteBuf in, ByteBuf out, int originalLength);
+}
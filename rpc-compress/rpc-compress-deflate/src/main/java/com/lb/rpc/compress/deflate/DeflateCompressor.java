@@ -0,0 +1,66 @@
+package com.lb.rpc.compress.deflate;
+
+import com.lb.rpc.common.exception.CompressException;
+import com.lb.rpc.compress.api.Compressor;
+import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 基于JDK的deflate压缩，压缩率较高，适合带宽受限的场景
+ */
+@SPIClass
+public class DeflateCompressor implements Compressor {
+    private final Logger logger = LoggerFactory.getLogger(DeflateCompressor.class);
+
+    /**
+     * Deflater和Inflater持有本地内存，每个线程复用一个实例
+     */
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        logger.debug("execute deflate compress...");
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(in.nioBuffer());
+        deflater.finish();
+        int chunk = Math.max(in.readableBytes() >>> 1, 64);
+        while (!deflater.finished()) {
+            out.ensureWritable(chunk);
+            ByteBuffer dst = out.nioBuffer(out.writerIndex(), out.writableBytes());
+            out.writerIndex(out.writerIndex() + deflater.deflate(dst));
+        }
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int originalLength) {
+        logger.debug("execute deflate decompress...");
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(in.nioBuffer());
+        out.ensureWritable(originalLength);
+        ByteBuffer dst = out.nioBuffer(out.writerIndex(), originalLength);
+        try {
+            while (!inflater.finished() && dst.hasRemaining()) {
+                if (inflater.inflate(dst) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new CompressException(e.getMessage(), e);
+        }
+        if (!inflater.finished() || dst.hasRemaining()) {
+            throw new CompressException("deflate data is corrupted, expected length " + originalLength);
+        }
+        out.writerIndex(out.writerIndex() + originalLength);
+    }
+}
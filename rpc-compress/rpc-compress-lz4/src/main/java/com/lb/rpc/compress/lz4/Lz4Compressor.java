@@ -0,0 +1,56 @@
+package com.lb.rpc.compress.lz4;
+
+import com.lb.rpc.common.exception.CompressException;
+import com.lb.rpc.compress.api.Compressor;
+import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 基于lz4-java的lz4压缩，压缩和解压速度快，本地库不可用时自动退化为纯Java实现
+ */
+@SPIClass
+public class Lz4Compressor implements Compressor {
+    private final Logger logger = LoggerFactory.getLogger(Lz4Compressor.class);
+
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+
+    private final LZ4SafeDecompressor decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+
+    @Override
+    public void compress(ByteBuf in, ByteBuf out) {
+        logger.debug("execute lz4 compress...");
+        int length = in.readableBytes();
+        int maxLength = compressor.maxCompressedLength(length);
+        out.ensureWritable(maxLength);
+        ByteBuffer src = in.nioBuffer();
+        ByteBuffer dst = out.nioBuffer(out.writerIndex(), maxLength);
+        int compressedLength = compressor.compress(src, src.position(), length, dst, dst.position(), maxLength);
+        out.writerIndex(out.writerIndex() + compressedLength);
+    }
+
+    @Override
+    public void decompress(ByteBuf in, ByteBuf out, int originalLength) {
+        logger.debug("execute lz4 decompress...");
+        out.ensureWritable(originalLength);
+        ByteBuffer src = in.nioBuffer();
+        ByteBuffer dst = out.nioBuffer(out.writerIndex(), originalLength);
+        int length;
+        try {
+            length = decompressor.decompress(src, src.position(), src.remaining(), dst, dst.position(), originalLength);
+        } catch (LZ4Exception e) {
+            throw new CompressException(e.getMessage(), e);
+        }
+        if (length != originalLength) {
+            throw new CompressException("lz4 data is corrupted, expected length " + originalLength + " but " + length);
+        }
+        out.writerIndex(out.writerIndex() + originalLength);
+    }
+}
@@ -7,16 +7,31 @@ public class RpcConstants {
      */
     public static final int HEADER_TOTAL_LEN = 32;
 
+    /**
+     * v2消息头，固定19个字节
+     */
+    public static final int HEADER_V2_TOTAL_LEN = 19;
+
     /**
      * 魔数
      */
     public static final short MAGIC = 0x10;
 
+    /**
+     * v2及之后版本消息头的魔数，魔数之后紧跟版本号
+     */
+    public static final short MAGIC_V2 = 0x11;
+
     /**
      * 版本号
      */
     public static final byte VERSION = 0x1;
 
+    /**
+     * v2版本号
+     */
+    public static final byte VERSION_V2 = 0x2;
+
     /**
      * REFLECT_TYPE_JDK
      */
@@ -90,6 +105,271 @@ public class RpcConstants {
      * kryo 序列化
      */
     public static final String SERIALIZATION_KRYO = "kryo";
+
+    /**
+     * 未注册的序列化ID，使用该序列化方式的消息只能以v1消息头编码
+     */
+    public static final byte SERIALIZATION_ID_UNKNOWN = 0;
+    /**
+     * jdk 序列化ID
+     */
+    public static final byte SERIALIZATION_ID_JDK = 1;
+    /**
+     * json 序列化ID
+     */
+    public static final byte SERIALIZATION_ID_JSON = 2;
+    /**
+     * hessian2 序列化ID
+     */
+    public static final byte SERIALIZATION_ID_HESSIAN2 = 3;
+    /**
+     * FST 序列化ID
+     */
+    public static final byte SERIALIZATION_ID_FST = 4;
+    /**
+     * kryo 序列化ID
+     */
+    public static final byte SERIALIZATION_ID_KRYO = 5;
+    /**
+     * protostuff 序列化ID
+     */
+    public static final byte SERIALIZATION_ID_PROTOSTUFF = 6;
+
+    /**
+     * 不压缩
+     */
+    public static final String COMPRESS_NONE = "none";
+    /**
+     * deflate 压缩
+     */
+    public static final String COMPRESS_DEFLATE = "deflate";
+    /**
+     * lz4 压缩
+     */
+    public static final String COMPRESS_LZ4 = "lz4";
+
+    /**
+     * 未压缩的压缩ID
+     */
+    public static final byte COMPRESS_ID_NONE = 0;
+    /**
+     * deflate 压缩ID
+     */
+    public static final byte COMPRESS_ID_DEFLATE = 1;
+    /**
+     * lz4 压缩ID
+     */
+    public static final byte COMPRESS_ID_LZ4 = 2;
+
+    /**
+     * v2消息头标志位中低4位为消息体的压缩ID
+     */
+    public static final byte FLAG_COMPRESS_MASK = 0x0F;
+
+    /**
+     * v2消息头标志位，请求在数据长度之后、消息体之前携带4字节的方法id，计入数据长度
+     */
+    public static final byte FLAG_METHOD_ID = 0x10;
+
+    /**
+     * 默认的压缩阈值，序列化后的消息体不小于该字节数时才尝试压缩
+     */
+    public static final int COMPRESS_THRESHOLD_DEFAULT = 2048;
+
+    /**
+     * 默认允许的最大消息体长度，单位字节，压缩的消息体同时限制解压后的长度
+     */
+    public static final int MAX_BODY_LENGTH_DEFAULT = 16 * 1024 * 1024;
+
+    /**
+     * 开启刷新合并时，默认最多合并的刷新次数，达到后立即刷新
+     */
+    public static final int EXPLICIT_FLUSH_AFTER_FLUSHES_DEFAULT = 256;
+
+    /**
+     * 每个连接默认允许的最大在途请求数，小于等于0表示不限制
+     */
+    public static final int MAX_IN_FLIGHT_PER_CONNECTION_DEFAULT = 0;
+
+    /**
+     * 在途窗口已满时阻塞等待的默认超时时间，单位毫秒
+     */
+    public static final long IN_FLIGHT_ACQUIRE_TIMEOUT_DEFAULT = 3000;
+
+    /**
+     * 在途窗口已满时阻塞等待，直到有请求完成或超时
+     */
+    public static final String IN_FLIGHT_POLICY_BLOCK = "block";
+
+    /**
+     * 在途窗口已满时立即失败
+     */
+    public static final String IN_FLIGHT_POLICY_FAIL_FAST = "failfast";
+
+    /**
+     * 在途窗口已满时转发到同一服务的其他连接，其他连接也已满时失败
+     */
+    public static final String IN_FLIGHT_POLICY_SPILL = "spill";
+
+    /**
+     * 默认每个服务提供者实例建立的连接数
+     */
+    public static final int CONNECTIONS_PER_ENDPOINT_DEFAULT = 1;
+
+    /**
+     * 连接池按轮询选择连接
+     */
+    public static final String CONNECTION_SELECT_ROUND_ROBIN = "roundrobin";
+
+    /**
+     * 连接池选择在途请求最少的连接
+     */
+    public static final String CONNECTION_SELECT_LEAST_PENDING = "leastpending";
+
+    /**
+     * 默认的建立连接超时时间，单位毫秒
+     */
+    public static final int CONNECT_TIMEOUT_DEFAULT = 3000;
+
+    /**
+     * 建立连接失败后默认的重试次数
+     */
+    public static final int CONNECT_RETRIES_DEFAULT = 2;
+
+    /**
+     * 建立连接失败后默认的首次重试间隔，单位毫秒，之后每次翻倍
+     */
+    public static final long CONNECT_RETRY_INTERVAL_DEFAULT = 200;
+
+    /**
+     * 默认的最大重试间隔，单位毫秒，也是服务提供者实例被标记为不健康的最长时间
+     */
+    public static final long CONNECT_RETRY_MAX_INTERVAL_DEFAULT = 10000;
+
+    /**
+     * 使用JDK NIO传输
+     */
+    public static final String TRANSPORT_NIO = "nio";
+
+    /**
+     * 使用Linux原生epoll传输，当前系统不支持时回退到NIO
+     */
+    public static final String TRANSPORT_EPOLL = "epoll";
+
+    /**
+     * 当前系统支持epoll时使用epoll，否则使用NIO
+     */
+    public static final String TRANSPORT_AUTO = "auto";
+
+    /**
+     * 服务端默认的连接等待队列大小
+     */
+    public static final int SERVER_BACKLOG_DEFAULT = 128;
+
+    /**
+     * 默认的写缓冲区高水位，单位字节，超过后Channel变为不可写
+     */
+    public static final int WRITE_BUFFER_HIGH_WATER_MARK_DEFAULT = 64 * 1024;
+
+    /**
+     * 默认的写缓冲区低水位，单位字节，降到该值以下后Channel恢复可写
+     */
+    public static final int WRITE_BUFFER_LOW_WATER_MARK_DEFAULT = 32 * 1024;
+
+    /**
+     * 池化的ByteBuf分配器
+     */
+    public static final String ALLOCATOR_POOLED = "pooled";
+
+    /**
+     * 非池化的ByteBuf分配器
+     */
+    public static final String ALLOCATOR_UNPOOLED = "unpooled";
+
+    /**
+     * 固定大小的平台线程池执行业务请求
+     */
+    public static final String EXECUTOR_FIXED = "fixed";
+
+    /**
+     * 每个请求一个虚拟线程，需要Java 21及以上版本，不支持时回退到固定大小的线程池
+     */
+    public static final String EXECUTOR_VIRTUAL = "virtual";
+
+    /**
+     * 直接在I/O线程中执行，只适用于不阻塞的简单方法
+     */
+    public static final String EXECUTOR_DIRECT = "direct";
+
+    /**
+     * 业务线程池默认的线程数
+     */
+    public static final int EXECUTOR_THREADS_DEFAULT = 16;
+
+    /**
+     * 业务线程池默认的队列大小
+     */
+    public static final int EXECUTOR_QUEUES_DEFAULT = 65535;
+
+    /**
+     * 默认的过载判断间隔，单位毫秒，排队时间在整个间隔内都超过目标值时判定为过载
+     */
+    public static final int OVERLOAD_INTERVAL_DEFAULT = 100;
+
+    /**
+     * 服务提供者过载时，消费者默认转发到其他服务提供者实例的次数
+     */
+    public static final int OVERLOAD_FAILOVER_RETRIES_DEFAULT = 1;
+
+    /**
+     * 请求没有指定超时时间时，消费者默认的请求超时时间，单位毫秒
+     */
+    public static final long REQUEST_TIMEOUT_DEFAULT = 15000;
+
+    /**
+     * 请求超时检查的时间轮每格的时长，单位毫秒，超时的精度不高于该值
+     */
+    public static final long REQUEST_TIMEOUT_TICK_DURATION = 10;
+
+    /**
+     * 请求超时检查的时间轮的格数
+     */
+    public static final int REQUEST_TIMEOUT_TICKS_PER_WHEEL = 512;
+
+    /**
+     * 每个线程一次取出的请求id数量
+     */
+    public static final long REQUEST_ID_BLOCK_SIZE = 1024;
+
+    /**
+     * 客户端线程池默认的线程数
+     */
+    public static final int CLIENT_THREADS_DEFAULT = 16;
+
+    /**
+     * 客户端线程池默认的队列大小
+     */
+    public static final int CLIENT_QUEUE_SIZE_DEFAULT = 65535;
+
+    /**
+     * 客户端线程池队列已满时，默认的溢出线程数
+     */
+    public static final int CLIENT_OVERFLOW_THREADS_DEFAULT = 4;
+
+    /**
+     * 客户端线程池默认的溢出队列大小
+     */
+    public static final int CLIENT_OVERFLOW_QUEUE_SIZE_DEFAULT = 16384;
+
+    /**
+     * RPCFuture的回调在客户端线程池中执行
+     */
+    public static final String CALLBACK_EXECUTOR_POOL = "pool";
+
+    /**
+     * RPCFuture的回调在结束RPCFuture的线程中直接执行，收到响应时为Netty的I/O线程，回调中不能有阻塞操作
+     */
+    public static final String CALLBACK_EXECUTOR_DIRECT = "direct";
     /**
      * 基于ZK的一致性Hash负载均衡
      */
@@ -1,34 +1,53 @@
 package com.lb.rpc.consumer.common;
 
+import com.lb.rpc.codec.LazyRpcProtocol;
+import com.lb.rpc.common.exception.ConnectionException;
+import com.lb.rpc.common.exception.InFlightLimitException;
 import com.lb.rpc.common.helper.RpcServiceHelper;
+import com.lb.rpc.common.helper.TransportHelper;
 import com.lb.rpc.common.ip.IpUtils;
 import com.lb.rpc.common.threadpool.ClientThreadPool;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.consumer.common.context.RpcContext;
+import com.lb.rpc.consumer.common.endpoint.EndpointKey;
 import com.lb.rpc.consumer.common.handler.RpcConsumerHandler;
 import com.lb.rpc.consumer.common.handler.RpcConsumerHandlerHelper;
 import com.lb.rpc.consumer.common.initializer.RpcConsumerInitializer;
+import com.lb.rpc.consumer.common.pool.RpcConsumerHandlerPool;
+import com.lb.rpc.consumer.common.window.InFlightWindow;
 import com.lb.rpc.loadbalancer.context.ConnectionsContext;
 import com.lb.rpc.protocol.RpcProtocol;
 import com.lb.rpc.protocol.meta.ServiceMeta;
 import com.lb.rpc.protocol.request.RpcRequest;
+import com.lb.rpc.protocol.response.RpcResponse;
 import com.lb.rpc.proxy.api.consumer.Consumer;
+import com.lb.rpc.proxy.api.consumer.RpcCallOptions;
 import com.lb.rpc.proxy.api.future.RPCFuture;
 import com.lb.rpc.registry.api.RegistryService;
 import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * RPC消费者客户端
  * 负责与RPC服务提供者建立连接，发送请求并接收响应
- * 采用单例模式，支持连接复用和管理
+ * 每个RpcConsumer按自己的ConsumerConfig持有独立的事件循环组和连接池，RpcClient各自创建并关闭自己的RpcConsumer；
+ * 客户端线程池由进程中所有的RpcConsumer共用，最后一个RpcConsumer关闭时才关闭
  */
 public class RpcConsumer implements Consumer {
     private final Logger logger = LoggerFactory.getLogger(RpcConsumer.class);
@@ -41,90 +60,339 @@ public class RpcConsumer implements Consumer {
 
     private final String localIp;
 
-    // 单例实例，使用volatile保证可见性
+    private final ConsumerConfig consumerConfig;
+
+    // 请求没有指定回调线程池时执行RPCFuture回调的线程池
+    private final Executor callbackExecutor;
+
+    // 使用默认配置的共享实例，使用volatile保证可见性
     private static volatile RpcConsumer instance;
 
-    // 连接处理器缓存映射，key为"ip_port"格式，value为对应的连接处理器
-    // 使用ConcurrentHashMap保证线程安全
-    private static Map<String, RpcConsumerHandler> handlerMap = new ConcurrentHashMap<>();
+    // 未关闭的RpcConsumer数量，为0时关闭客户端线程池，在RpcConsumer.class的锁内修改
+    private static int openConsumers;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
 
-    private RpcConsumer() {
+    // 该消费者到各服务提供者实例的连接池
+    private final RpcConsumerHandlerHelper rpcConsumerHandlerHelper = new RpcConsumerHandlerHelper();
+
+    // 每个服务已发现的服务提供者地址，key为服务key
+    // 在途窗口策略为spill或服务提供者响应过载时，从这里查找同一服务的其他连接
+    private final Map<String, Map<EndpointKey, ServiceMeta>> serviceEndpoints = new ConcurrentHashMap<>();
+
+    private RpcConsumer(ConsumerConfig consumerConfig) {
+        this.consumerConfig = consumerConfig;
+        synchronized (RpcConsumer.class) {
+            openConsumers++;
+            ClientThreadPool.init(consumerConfig.getClientThreads(), consumerConfig.getClientQueueSize(),
+                    consumerConfig.getClientOverflowThreads(), consumerConfig.getClientOverflowQueueSize());
+        }
+        this.callbackExecutor = RpcConsumerHandler.getCallbackExecutor(consumerConfig);
         localIp = IpUtils.getLocalHostIp();
         bootstrap = new Bootstrap();
-        // 创建NIO事件循环组，线程数为
-        eventLoopGroup = new NioEventLoopGroup(4);
+        // 配置允许且系统支持时使用epoll传输，否则使用NIO
+        boolean epoll = TransportHelper.useEpoll(consumerConfig.getTransportType());
+        // 创建事件循环组，线程数为4
+        eventLoopGroup = TransportHelper.newEventLoopGroup(epoll, 4);
         // 配置Bootstrap：设置事件循环组、Channel类型和初始化器
         bootstrap.group(eventLoopGroup)
-                .channel(NioSocketChannel.class)    // 使用NIO Socket Channel
-                .handler(new RpcConsumerInitializer()); // 设置Channel初始化器
+                .channel(TransportHelper.getSocketChannelClass(epoll))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, consumerConfig.getConnectTimeout())
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new RpcConsumerInitializer(consumerConfig, this::onOverloaded)); // 设置Channel初始化器
+    }
+
+    /**
+     * 按指定配置创建独立的RpcConsumer，由调用方负责关闭
+     *
+     * @param consumerConfig 服务消费者的网络配置，为null时使用默认配置
+     */
+    public static RpcConsumer create(ConsumerConfig consumerConfig) {
+        return new RpcConsumer(consumerConfig == null ? new ConsumerConfig() : consumerConfig);
     }
 
     public static RpcConsumer getInstance() {
-        if (instance == null) {
+        return getInstance(null);
+    }
+
+    /**
+     * 获取共享的RpcConsumer，consumerConfig只在第一次创建时生效，为null时使用默认配置
+     * 共享实例已经按其他配置创建时，传入的consumerConfig不生效并输出警告，需要独立配置时使用create创建
+     */
+    public static RpcConsumer getInstance(ConsumerConfig consumerConfig) {
+        RpcConsumer consumer = instance;
+        if (consumer == null) {
             synchronized (RpcConsumer.class) {
-                if (instance == null) {
-                    instance = new RpcConsumer();
+                consumer = instance;
+                if (consumer == null) {
+                    consumer = create(consumerConfig);
+                    instance = consumer;
+                    return consumer;
                 }
             }
         }
-        return instance;
+        if (consumerConfig != null && consumerConfig != consumer.consumerConfig) {
+            consumer.logger.warn("shared RpcConsumer is already created with another ConsumerConfig, the given config is ignored. "
+                    + "Use RpcConsumer.create to get a consumer with its own config.");
+        }
+        return consumer;
     }
 
     /**
-     * 关闭RPC消费者，释放资源
-     * 优雅关闭事件循环组，等待所有任务完成
+     * 关闭RPC消费者，释放资源，重复调用时不做处理
+     * 关闭该消费者的连接并优雅关闭事件循环组，最后一个未关闭的消费者关闭时同时关闭客户端线程池
      */
     public void close() {
-        RpcConsumerHandlerHelper.closeRpcClientHandler();
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        rpcConsumerHandlerHelper.closeRpcClientHandler();
         eventLoopGroup.shutdownGracefully();
-        ClientThreadPool.shutdown();
+        synchronized (RpcConsumer.class) {
+            if (instance == this) {
+                instance = null;
+            }
+            if (--openConsumers == 0) {
+                ClientThreadPool.shutdown();
+            }
+        }
     }
 
     /**
      * 发送RPC请求到服务提供者, 现在改为返回 Object，意味着要实现同步调用，等待服务提供者的响应并返回结果
      *
-     * @param protocol RPC协议对象，包含请求信息
+     * @param protocol    RPC协议对象，包含请求信息
+     * @param callOptions 调用在本地使用的参数
      * @throws Exception 连接或发送过程中的异常
      */
     @Override
-    public RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, RegistryService registryService) throws Exception {
+    public RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions, RegistryService registryService) throws Exception {
         RpcRequest request = protocol.getBody();
         String serviceKey = RpcServiceHelper.buildServiceKey(request.getClassName(), request.getVersion(), request.getGroup());
         Object[] params = request.getParameters();
         int invokerHashCode = (params == null || params.length <= 0) ? serviceKey.hashCode() : params[0].hashCode();
         ServiceMeta serviceMeta = registryService.discovery(serviceKey, invokerHashCode, localIp);
         if (serviceMeta != null) {
-            RpcConsumerHandler handler = RpcConsumerHandlerHelper.get(serviceMeta);
-            //缓存中无RpcClientHandler
-            if (handler == null) {
-                handler = getRpcConsumerHandler(serviceMeta);
-                RpcConsumerHandlerHelper.put(serviceMeta, handler);
-            } else if (!handler.getChannel().isActive()) {  //缓存中存在RpcClientHandler，但不活跃
-                handler.close();
-                handler = getRpcConsumerHandler(serviceMeta);
-                RpcConsumerHandlerHelper.put(serviceMeta, handler);
-            }
-            return handler.sendRequest(protocol, request.getAsync(), request.getOneway());
+            // 每个服务提供者实例对应一个连接池，连接在选择时按需建立，已断开的连接会被剔除并重新建立
+            EndpointKey endpointKey = EndpointKey.of(serviceMeta);
+            RpcConsumerHandlerPool pool = rpcConsumerHandlerHelper.computeIfAbsent(endpointKey, serviceMeta, this::createRpcConsumerHandlerPool);
+            CompletableFuture<RpcConsumerHandler> handlerFuture = pool.select();
+            if (!handlerFuture.isDone()) {
+                // 连接正在建立，请求在连接可用后再发送，不阻塞调用方线程
+                return this.sendRequestWhenConnected(handlerFuture, protocol, callOptions);
+            }
+            if (handlerFuture.isCompletedExceptionally()) {
+                // 服务提供者实例不健康或建立连接失败，只影响发往该实例的请求
+                throw this.getConnectionException(handlerFuture, serviceMeta);
+            }
+            RpcConsumerHandler handler = handlerFuture.join();
+            boolean spill = RpcConstants.IN_FLIGHT_POLICY_SPILL.equals(consumerConfig.getInFlightPolicy());
+            if (spill || consumerConfig.getOverloadFailoverRetries() > 0) {
+                serviceEndpoints.computeIfAbsent(serviceKey, key -> new ConcurrentHashMap<>()).putIfAbsent(endpointKey, serviceMeta);
+            }
+            try {
+                return handler.sendRequest(protocol, callOptions, request.getAsync(), request.getOneway());
+            } catch (InFlightLimitException e) {
+                if (!spill) {
+                    throw e;
+                }
+                return this.spillRequest(serviceKey, pool, handler, protocol, callOptions, e);
+            }
         }
         return null;
     }
 
     /**
-     * 创建到指定服务地址的连接并返回对应的处理器
+     * 当前连接的在途窗口已满，先转发到同一服务提供者的其他连接，再转发到同一服务其他服务提供者的连接，
+     * 所有连接都已满时抛出原异常
+     */
+    private RPCFuture spillRequest(String serviceKey, RpcConsumerHandlerPool fullPool, RpcConsumerHandler fullHandler, RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions, InFlightLimitException e) {
+        List<RpcConsumerHandlerPool> pools = new ArrayList<>();
+        pools.add(fullPool);
+        Map<EndpointKey, ServiceMeta> endpoints = serviceEndpoints.get(serviceKey);
+        if (endpoints != null) {
+            for (ServiceMeta serviceMeta : endpoints.values()) {
+                RpcConsumerHandlerPool pool = rpcConsumerHandlerHelper.get(serviceMeta);
+                if (pool != null && pool != fullPool) {
+                    pools.add(pool);
+                }
+            }
+        }
+        RpcRequest request = protocol.getBody();
+        for (RpcConsumerHandlerPool pool : pools) {
+            for (RpcConsumerHandler handler : pool.getActiveHandlers()) {
+                if (handler == fullHandler) {
+                    continue;
+                }
+                try {
+                    return handler.sendRequest(protocol, callOptions, request.getAsync(), request.getOneway());
+                } catch (InFlightLimitException ignored) {
+                    // 该连接的窗口也已满，继续尝试下一个连接
+                }
+            }
+        }
+        throw e;
+    }
+
+    /**
+     * 服务提供者响应过载时，在客户端线程池中把请求转发到同一服务的其他服务提供者实例，
+     * 只选择已经建立好连接、当前健康的实例，没有可用的实例时以过载响应结束RPCFuture
      */
-    private RpcConsumerHandler getRpcConsumerHandler(ServiceMeta serviceMeta) throws InterruptedException {
-        ChannelFuture channelFuture = bootstrap.connect(serviceMeta.getServiceAddr(), serviceMeta.getServicePort()).sync();
-        channelFuture.addListener((ChannelFutureListener) listener -> {
+    private boolean onOverloaded(RpcConsumerHandler overloadedHandler, RPCFuture rpcFuture, RpcProtocol<RpcResponse> response) {
+        RpcProtocol<RpcRequest> protocol = rpcFuture.getRequestRpcProtocol();
+        if (protocol == null || rpcFuture.getFailovers() >= consumerConfig.getOverloadFailoverRetries()) {
+            return false;
+        }
+        rpcFuture.incrementFailovers();
+        try {
+            ClientThreadPool.submit(() -> {
+                if (this.failoverRequest(overloadedHandler, protocol, rpcFuture) || !rpcFuture.done(response)) {
+                    if (response instanceof LazyRpcProtocol) {
+                        ((LazyRpcProtocol<RpcResponse>) response).release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 客户端线程池已满，不再转发，以过载响应结束RPCFuture
+            return false;
+        }
+        return true;
+    }
+
+    private boolean failoverRequest(RpcConsumerHandler overloadedHandler, RpcProtocol<RpcRequest> protocol, RPCFuture rpcFuture) {
+        RpcRequest request = protocol.getBody();
+        String serviceKey = RpcServiceHelper.buildServiceKey(request.getClassName(), request.getVersion(), request.getGroup());
+        Map<EndpointKey, ServiceMeta> endpoints = serviceEndpoints.get(serviceKey);
+        if (endpoints == null) {
+            return false;
+        }
+        for (ServiceMeta serviceMeta : endpoints.values()) {
+            RpcConsumerHandlerPool pool = rpcConsumerHandlerHelper.get(serviceMeta);
+            if (pool == null || pool.isUnhealthy() || pool.getActiveHandlers().contains(overloadedHandler)) {
+                continue;
+            }
+            CompletableFuture<RpcConsumerHandler> handlerFuture = pool.select();
+            if (!handlerFuture.isDone() || handlerFuture.isCompletedExceptionally()) {
+                continue;
+            }
+            try {
+                handlerFuture.join().sendRequest(protocol, rpcFuture);
+                logger.warn("rpc server {} is overloaded, failover request {} to {}:{}", overloadedHandler.getRemotePeer(),
+                        protocol.getHeader().getRequestId(), serviceMeta.getServiceAddr(), serviceMeta.getServicePort());
+                return true;
+            } catch (InFlightLimitException ignored) {
+                // 该实例的连接窗口已满，继续尝试下一个实例
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取每个连接的在途窗口，用于监控窗口占用情况，key为"ip_port#连接序号"格式
+     */
+    public Map<String, InFlightWindow> getInFlightWindows() {
+        return rpcConsumerHandlerHelper.getInFlightWindows();
+    }
+
+    /**
+     * 连接建立完成后再发送请求
+     * 同步和异步调用先创建RPCFuture返回给调用方，连接建立失败时以错误响应结束该RPCFuture；
+     * 发送可能因为在途窗口已满而等待，因此放到客户端线程池中执行，不占用I/O线程
+     */
+    private RPCFuture sendRequestWhenConnected(CompletableFuture<RpcConsumerHandler> handlerFuture, RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions) {
+        RpcRequest request = protocol.getBody();
+        RPCFuture rpcFuture = request.getOneway() ? null : new RPCFuture(protocol, callOptions, RpcContext.getContext().getCallbackExecutor(callbackExecutor));
+        if (request.getAsync() && rpcFuture != null) {
+            RpcContext.getContext().setRpcFuture(rpcFuture);
+        }
+        handlerFuture.whenComplete((handler, cause) -> {
+            try {
+                ClientThreadPool.submit(() -> {
+                    if (cause != null) {
+                        this.failRpcFuture(rpcFuture, protocol, cause);
+                        return;
+                    }
+                    try {
+                        if (rpcFuture == null) {
+                            handler.sendRequest(protocol, callOptions, false, true);
+                        } else {
+                            handler.sendRequest(protocol, rpcFuture);
+                        }
+                    } catch (Exception e) {
+                        this.failRpcFuture(rpcFuture, protocol, e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // 客户端线程池已满，请求不再发送
+                this.failRpcFuture(rpcFuture, protocol, e);
+            }
+        });
+        return request.getAsync() ? null : rpcFuture;
+    }
+
+    /**
+     * 请求没有发送出去时，以错误响应结束RPCFuture，唤醒等待的调用方并触发回调
+     */
+    private void failRpcFuture(RPCFuture rpcFuture, RpcProtocol<RpcRequest> protocol, Throwable cause) {
+        Throwable error = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+        logger.error("send request {} failed.", protocol.getHeader().getRequestId(), error);
+        if (rpcFuture == null) {
+            return;
+        }
+        RpcResponse response = new RpcResponse();
+        response.setError(error.getMessage());
+        RpcProtocol<RpcResponse> responseProtocol = new RpcProtocol<>();
+        responseProtocol.setHeader(protocol.getHeader());
+        responseProtocol.setBody(response);
+        rpcFuture.done(responseProtocol);
+    }
+
+    private ConnectionException getConnectionException(CompletableFuture<RpcConsumerHandler> handlerFuture, ServiceMeta serviceMeta) {
+        try {
+            handlerFuture.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ConnectionException) {
+                return (ConnectionException) e.getCause();
+            }
+            return new ConnectionException("connect rpc server " + serviceMeta.getServiceAddr() + ":" + serviceMeta.getServicePort() + " failed", e.getCause());
+        }
+        return new ConnectionException("connect rpc server " + serviceMeta.getServiceAddr() + ":" + serviceMeta.getServicePort() + " failed");
+    }
+
+    /**
+     * 创建服务提供者实例的连接池
+     */
+    private RpcConsumerHandlerPool createRpcConsumerHandlerPool(ServiceMeta serviceMeta) {
+        return new RpcConsumerHandlerPool(serviceMeta, consumerConfig, this::getRpcConsumerHandler);
+    }
+
+    /**
+     * 异步创建到指定服务地址的连接，返回的Future在连接可用时完成
+     * 建立连接失败时按照指数退避重试，重试全部失败后只结束该Future，不影响共用的事件循环组
+     */
+    private CompletableFuture<RpcConsumerHandler> getRpcConsumerHandler(ServiceMeta serviceMeta) {
+        CompletableFuture<RpcConsumerHandler> future = new CompletableFuture<>();
+        this.connect(serviceMeta, 0, future);
+        return future;
+    }
+
+    private void connect(ServiceMeta serviceMeta, int attempt, CompletableFuture<RpcConsumerHandler> future) {
+        bootstrap.connect(serviceMeta.getServiceAddr(), serviceMeta.getServicePort()).addListener((ChannelFutureListener) channelFuture -> {
             if (channelFuture.isSuccess()) {
                 logger.info("connect rpc server {} on port {} success.", serviceMeta.getServiceAddr(), serviceMeta.getServicePort());
                 //添加连接信息，在服务消费者端记录每个服务提供者实例的连接次数
                 ConnectionsContext.add(serviceMeta);
-            } else {
-                logger.error("connect rpc server {} on port {} failed.", serviceMeta.getServiceAddr(), serviceMeta.getServicePort());
-                channelFuture.cause().printStackTrace();
-                eventLoopGroup.shutdownGracefully();
+                future.complete(channelFuture.channel().pipeline().get(RpcConsumerHandler.class));
+                return;
+            }
+            if (attempt >= consumerConfig.getConnectRetries() || eventLoopGroup.isShuttingDown()) {
+                logger.error("connect rpc server {} on port {} failed after {} attempts.", serviceMeta.getServiceAddr(), serviceMeta.getServicePort(), attempt + 1, channelFuture.cause());
+                future.completeExceptionally(channelFuture.cause());
+                return;
             }
+            long delay = Math.min(consumerConfig.getConnectRetryInterval() << Math.min(attempt, 16), consumerConfig.getConnectRetryMaxInterval());
+            logger.warn("connect rpc server {} on port {} failed, retry in {}ms.", serviceMeta.getServiceAddr(), serviceMeta.getServicePort(), delay);
+            eventLoopGroup.schedule(() -> this.connect(serviceMeta, attempt + 1, future), delay, TimeUnit.MILLISECONDS);
         });
-        return channelFuture.channel().pipeline().get(RpcConsumerHandler.class);
     }
 }
@@ -0,0 +1,303 @@
+package com.lb.rpc.consumer.common.config;
+
+import com.lb.rpc.constants.RpcConstants;
+
+/**
+ * 服务消费者的网络配置
+ * RpcConsumer在进程内是单例的，这些配置在第一次创建RpcConsumer时生效
+ */
+public class ConsumerConfig {
+
+    /**
+     * 是否开启刷新合并，开启后同一轮事件循环内的多次写入只触发一次flush系统调用
+     */
+    private boolean flushConsolidation;
+
+    /**
+     * 开启刷新合并时，最多合并的刷新次数，达到后立即刷新
+     */
+    private int explicitFlushAfterFlushes = RpcConstants.EXPLICIT_FLUSH_AFTER_FLUSHES_DEFAULT;
+
+    /**
+     * 每个连接允许的最大在途请求数（已发送但未收到响应的请求），小于等于0表示不限制
+     */
+    private int maxInFlightPerConnection = RpcConstants.MAX_IN_FLIGHT_PER_CONNECTION_DEFAULT;
+
+    /**
+     * 在途窗口已满时的处理策略：block、failfast、spill
+     */
+    private String inFlightPolicy = RpcConstants.IN_FLIGHT_POLICY_BLOCK;
+
+    /**
+     * block策略下等待窗口的超时时间，单位毫秒
+     */
+    private long inFlightAcquireTimeout = RpcConstants.IN_FLIGHT_ACQUIRE_TIMEOUT_DEFAULT;
+
+    /**
+     * 每个服务提供者实例建立的最大连接数，连接在需要时才建立
+     */
+    private int connectionsPerEndpoint = RpcConstants.CONNECTIONS_PER_ENDPOINT_DEFAULT;
+
+    /**
+     * 连接池选择连接的策略：roundrobin、leastpending
+     */
+    private String connectionSelectStrategy = RpcConstants.CONNECTION_SELECT_LEAST_PENDING;
+
+    /**
+     * 建立连接的超时时间，单位毫秒
+     */
+    private int connectTimeout = RpcConstants.CONNECT_TIMEOUT_DEFAULT;
+
+    /**
+     * 建立连接失败后的重试次数
+     */
+    private int connectRetries = RpcConstants.CONNECT_RETRIES_DEFAULT;
+
+    /**
+     * 建立连接失败后的首次重试间隔，单位毫秒，之后每次翻倍
+     */
+    private long connectRetryInterval = RpcConstants.CONNECT_RETRY_INTERVAL_DEFAULT;
+
+    /**
+     * 最大重试间隔，单位毫秒，重试全部失败后服务提供者实例被标记为不健康，不健康的时长同样按失败次数翻倍，不超过该值
+     */
+    private long connectRetryMaxInterval = RpcConstants.CONNECT_RETRY_MAX_INTERVAL_DEFAULT;
+
+    /**
+     * 网络传输方式：nio、epoll、auto，epoll和auto在当前系统不支持epoll时回退到NIO
+     */
+    private String transportType = RpcConstants.TRANSPORT_NIO;
+
+    /**
+     * 服务提供者响应过载时，转发到同一服务其他服务提供者实例的最大次数，0表示不转发
+     */
+    private int overloadFailoverRetries = RpcConstants.OVERLOAD_FAILOVER_RETRIES_DEFAULT;
+
+    /**
+     * 是否按方法id调用，开启后每个连接发送第一个请求时向服务提供者请求方法表，
+     * 收到方法表后请求只携带方法id和参数；服务提供者不支持方法表时继续使用类名和方法名调用
+     */
+    private boolean methodIdDispatch;
+
+    /**
+     * 请求没有指定超时时间时的默认超时时间，单位毫秒，小于等于0表示不超时
+     * 超时的请求从连接的等待响应列表中移除，并以RpcException异常结束RPCFuture
+     */
+    private long requestTimeout = RpcConstants.REQUEST_TIMEOUT_DEFAULT;
+
+    /**
+     * RPCFuture回调默认的执行方式：pool、direct，调用时指定了回调线程池的请求使用指定的线程池
+     */
+    private String callbackExecutor = RpcConstants.CALLBACK_EXECUTOR_POOL;
+
+    /**
+     * 客户端线程池的线程数
+     */
+    private int clientThreads = RpcConstants.CLIENT_THREADS_DEFAULT;
+
+    /**
+     * 客户端线程池的队列大小，队列已满时任务转交给单独的溢出线程执行
+     */
+    private int clientQueueSize = RpcConstants.CLIENT_QUEUE_SIZE_DEFAULT;
+
+    /**
+     * 客户端线程池队列已满时执行溢出任务的线程数
+     */
+    private int clientOverflowThreads = RpcConstants.CLIENT_OVERFLOW_THREADS_DEFAULT;
+
+    /**
+     * 客户端线程池的溢出队列大小，溢出队列也满时受影响的请求以异常结束
+     */
+    private int clientOverflowQueueSize = RpcConstants.CLIENT_OVERFLOW_QUEUE_SIZE_DEFAULT;
+
+    /**
+     * 允许的最大响应体长度，单位字节，压缩的响应体同时限制解压后的长度，超过时关闭连接
+     */
+    private int maxBodyLength = RpcConstants.MAX_BODY_LENGTH_DEFAULT;
+
+    /**
+     * 是否延迟反序列化响应体，默认开启：I/O线程只拆包，响应体在调用方或回调线程中反序列化，
+     * 未压缩的响应体需要在I/O线程中拷贝一次，避免未读取的响应持有累积缓冲区导致其无法复用；
+     * 关闭后响应体在I/O线程中直接从累积缓冲区的切片反序列化，不拷贝，适合响应体较小并且反序列化很快的场景
+     */
+    private boolean lazyDecode = true;
+
+    public ConsumerConfig() {
+    }
+
+    public boolean isFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public void setFlushConsolidation(boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+    }
+
+    public int getExplicitFlushAfterFlushes() {
+        return explicitFlushAfterFlushes;
+    }
+
+    public void setExplicitFlushAfterFlushes(int explicitFlushAfterFlushes) {
+        this.explicitFlushAfterFlushes = explicitFlushAfterFlushes;
+    }
+
+    public int getMaxInFlightPerConnection() {
+        return maxInFlightPerConnection;
+    }
+
+    public void setMaxInFlightPerConnection(int maxInFlightPerConnection) {
+        this.maxInFlightPerConnection = maxInFlightPerConnection;
+    }
+
+    public String getInFlightPolicy() {
+        return inFlightPolicy;
+    }
+
+    public void setInFlightPolicy(String inFlightPolicy) {
+        this.inFlightPolicy = inFlightPolicy;
+    }
+
+    public long getInFlightAcquireTimeout() {
+        return inFlightAcquireTimeout;
+    }
+
+    public void setInFlightAcquireTimeout(long inFlightAcquireTimeout) {
+        this.inFlightAcquireTimeout = inFlightAcquireTimeout;
+    }
+
+    public int getConnectionsPerEndpoint() {
+        return connectionsPerEndpoint;
+    }
+
+    public void setConnectionsPerEndpoint(int connectionsPerEndpoint) {
+        this.connectionsPerEndpoint = connectionsPerEndpoint;
+    }
+
+    public String getConnectionSelectStrategy() {
+        return connectionSelectStrategy;
+    }
+
+    public void setConnectionSelectStrategy(String connectionSelectStrategy) {
+        this.connectionSelectStrategy = connectionSelectStrategy;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getConnectRetries() {
+        return connectRetries;
+    }
+
+    public void setConnectRetries(int connectRetries) {
+        this.connectRetries = connectRetries;
+    }
+
+    public long getConnectRetryInterval() {
+        return connectRetryInterval;
+    }
+
+    public void setConnectRetryInterval(long connectRetryInterval) {
+        this.connectRetryInterval = connectRetryInterval;
+    }
+
+    public long getConnectRetryMaxInterval() {
+        return connectRetryMaxInterval;
+    }
+
+    public void setConnectRetryMaxInterval(long connectRetryMaxInterval) {
+        this.connectRetryMaxInterval = connectRetryMaxInterval;
+    }
+
+    public String getTransportType() {
+        return transportType;
+    }
+
+    public void setTransportType(String transportType) {
+        this.transportType = transportType;
+    }
+
+    public int getOverloadFailoverRetries() {
+        return overloadFailoverRetries;
+    }
+
+    public void setOverloadFailoverRetries(int overloadFailoverRetries) {
+        this.overloadFailoverRetries = overloadFailoverRetries;
+    }
+
+    public boolean isMethodIdDispatch() {
+        return methodIdDispatch;
+    }
+
+    public void setMethodIdDispatch(boolean methodIdDispatch) {
+        this.methodIdDispatch = methodIdDispatch;
+    }
+
+    public long getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(long requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public String getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public void setCallbackExecutor(String callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public int getClientThreads() {
+        return clientThreads;
+    }
+
+    public void setClientThreads(int clientThreads) {
+        this.clientThreads = clientThreads;
+    }
+
+    public int getClientQueueSize() {
+        return clientQueueSize;
+    }
+
+    public void setClientQueueSize(int clientQueueSize) {
+        this.clientQueueSize = clientQueueSize;
+    }
+
+    public int getClientOverflowThreads() {
+        return clientOverflowThreads;
+    }
+
+    public void setClientOverflowThreads(int clientOverflowThreads) {
+        this.clientOverflowThreads = clientOverflowThreads;
+    }
+
+    public int getClientOverflowQueueSize() {
+        return clientOverflowQueueSize;
+    }
+
+    public void setClientOverflowQueueSize(int clientOverflowQueueSize) {
+        this.clientOverflowQueueSize = clientOverflowQueueSize;
+    }
+
+    public int getMaxBodyLength() {
+        return maxBodyLength;
+    }
+
+    public void setMaxBodyLength(int maxBodyLength) {
+        this.maxBodyLength = maxBodyLength;
+    }
+
+    public boolean isLazyDecode() {
+        return lazyDecode;
+    }
+
+    public void setLazyDecode(boolean lazyDecode) {
+        this.lazyDecode = lazyDecode;
+    }
+}
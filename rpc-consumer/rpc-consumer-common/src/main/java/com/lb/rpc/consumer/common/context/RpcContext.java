@@ -3,6 +3,8 @@ package com.lb.rpc.consumer.common.context;
 
 import com.lb.rpc.proxy.api.future.RPCFuture;
 
+import java.util.concurrent.Executor;
+
 public class RpcContext {
     public RpcContext() {
     }
@@ -11,6 +13,8 @@ public class RpcContext {
 
     private static final InheritableThreadLocal<RPCFuture> RPC_FUTURE_THREAD_LOCAL = new InheritableThreadLocal<>();
 
+    private static final InheritableThreadLocal<Executor> CALLBACK_EXECUTOR_THREAD_LOCAL = new InheritableThreadLocal<>();
+
     public static RpcContext getContext() {
         return AGENT;
     }
@@ -26,4 +30,23 @@ public class RpcContext {
     public void removeRpcFuture(){
         RPC_FUTURE_THREAD_LOCAL.remove();
     }
+
+    /**
+     * 指定当前线程之后发起的调用执行RPCFuture回调的线程池，调用时通过IAsyncObjectProxy.call指定的线程池优先
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        CALLBACK_EXECUTOR_THREAD_LOCAL.set(callbackExecutor);
+    }
+
+    /**
+     * 获取当前线程指定的回调线程池，没有指定时返回defaultCallbackExecutor
+     */
+    public Executor getCallbackExecutor(Executor defaultCallbackExecutor) {
+        Executor callbackExecutor = CALLBACK_EXECUTOR_THREAD_LOCAL.get();
+        return callbackExecutor == null ? defaultCallbackExecutor : callbackExecutor;
+    }
+
+    public void removeCallbackExecutor() {
+        CALLBACK_EXECUTOR_THREAD_LOCAL.remove();
+    }
 }
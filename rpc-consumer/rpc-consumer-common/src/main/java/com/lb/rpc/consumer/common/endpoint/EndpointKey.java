@@ -0,0 +1,59 @@
+package com.lb.rpc.consumer.common.endpoint;
+
+import com.lb.rpc.protocol.meta.ServiceMeta;
+
+/**
+ * 服务提供者实例的地址，作为连接缓存的key
+ * 不可变对象，hash值在创建时计算，查找缓存时不需要拼接字符串
+ */
+public final class EndpointKey {
+
+    private final String host;
+
+    private final int port;
+
+    private final int hash;
+
+    public EndpointKey(String host, int port) {
+        this.host = host;
+        this.port = port;
+        this.hash = 31 * (host == null ? 0 : host.hashCode()) + port;
+    }
+
+    public static EndpointKey of(ServiceMeta serviceMeta) {
+        return new EndpointKey(serviceMeta.getServiceAddr(), serviceMeta.getServicePort());
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EndpointKey)) {
+            return false;
+        }
+        EndpointKey that = (EndpointKey) o;
+        return hash == that.hash && port == that.port && (host == null ? that.host == null : host.equals(that.host));
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * "ip_port"格式，与之前的缓存key保持一致
+     */
+    @Override
+    public String toString() {
+        return host + "_" + port;
+    }
+}
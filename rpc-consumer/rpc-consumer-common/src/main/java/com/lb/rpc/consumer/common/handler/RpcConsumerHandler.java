@@ -1,23 +1,41 @@
 package com.lb.rpc.consumer.common.handler;
 
 import com.alibaba.fastjson.JSONObject;
+import com.lb.rpc.codec.LazyRpcProtocol;
+import com.lb.rpc.common.collection.ConcurrentLongObjectMap;
+import com.lb.rpc.common.exception.ConnectionException;
+import com.lb.rpc.common.exception.RpcException;
+import com.lb.rpc.common.threadpool.ClientThreadPool;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
 import com.lb.rpc.consumer.common.context.RpcContext;
+import com.lb.rpc.consumer.common.timeout.RequestTimeoutTimer;
+import com.lb.rpc.consumer.common.window.InFlightWindow;
 import com.lb.rpc.protocol.RpcProtocol;
+import com.lb.rpc.protocol.enumeration.RpcStatus;
+import com.lb.rpc.protocol.enumeration.RpcType;
 import com.lb.rpc.protocol.header.RpcHeader;
+import com.lb.rpc.protocol.header.RpcHeaderFactory;
+import com.lb.rpc.protocol.meta.MethodTable;
 import com.lb.rpc.protocol.request.RpcRequest;
 import com.lb.rpc.protocol.response.RpcResponse;
+import com.lb.rpc.proxy.api.consumer.RpcCallOptions;
 import com.lb.rpc.proxy.api.future.RPCFuture;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.SocketAddress;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * RPC消费者处理器
@@ -35,7 +53,77 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
     //存储请求ID与RpcResponse协议的映射关系
     // private Map<Long, RpcProtocol<RpcResponse>> pendingResponse = new ConcurrentHashMap<>();
 
-    private Map<Long, RPCFuture> pendingRPC = new ConcurrentHashMap<>();
+    // 等待响应的请求，key为请求id，请求id不需要装箱
+    private final ConcurrentLongObjectMap<RPCFuture> pendingRPC = new ConcurrentLongObjectMap<>();
+
+    // 在途请求窗口，pendingRPC中的每个请求占用一个窗口位置
+    private final InFlightWindow inFlightWindow;
+
+    /**
+     * 收到服务提供者过载的响应时回调，决定是否转发到其他服务提供者实例
+     */
+    @FunctionalInterface
+    public interface OverloadListener {
+        /**
+         * @param handler   响应过载的连接
+         * @param rpcFuture 等待响应的RPCFuture
+         * @param response  过载响应
+         * @return 请求已转发、由监听器负责结束RPCFuture时返回true，返回false时以过载响应结束RPCFuture
+         */
+        boolean onOverloaded(RpcConsumerHandler handler, RPCFuture rpcFuture, RpcProtocol<RpcResponse> response);
+    }
+
+    private final OverloadListener overloadListener;
+
+    /**
+     * 是否按方法id调用
+     */
+    private final boolean methodIdDispatch;
+
+    /**
+     * 服务提供者响应的方法表，收到之前为null
+     */
+    private volatile Map<String, Integer> methodIds;
+
+    /**
+     * 连接上是否已经请求过方法表，服务提供者响应方法id不存在时重置，重新请求方法表
+     */
+    private final AtomicBoolean methodTableRequested = new AtomicBoolean();
+
+    /**
+     * 请求没有指定超时时间时的默认超时时间，单位毫秒，小于等于0表示不超时
+     */
+    private final long requestTimeout;
+
+    /**
+     * 请求没有指定回调线程池时执行RPCFuture回调的线程池
+     */
+    private final Executor callbackExecutor;
+
+    public RpcConsumerHandler() {
+        this(new ConsumerConfig());
+    }
+
+    public RpcConsumerHandler(ConsumerConfig consumerConfig) {
+        this(consumerConfig, null);
+    }
+
+    public RpcConsumerHandler(ConsumerConfig consumerConfig, OverloadListener overloadListener) {
+        this.inFlightWindow = new InFlightWindow(consumerConfig.getMaxInFlightPerConnection(),
+                consumerConfig.getInFlightPolicy(), consumerConfig.getInFlightAcquireTimeout());
+        this.overloadListener = overloadListener;
+        this.methodIdDispatch = consumerConfig.isMethodIdDispatch();
+        this.requestTimeout = consumerConfig.getRequestTimeout();
+        this.callbackExecutor = getCallbackExecutor(consumerConfig);
+    }
+
+    /**
+     * 按消费者的配置获取执行RPCFuture回调的线程池，direct表示在结束RPCFuture的线程中直接执行，其他配置使用客户端线程池
+     */
+    public static Executor getCallbackExecutor(ConsumerConfig consumerConfig) {
+        return RpcConstants.CALLBACK_EXECUTOR_DIRECT.equals(consumerConfig.getCallbackExecutor())
+                ? RPCFuture.DIRECT_CALLBACK_EXECUTOR : ClientThreadPool.getExecutor();
+    }
 
     public Channel getChannel() {
         return channel;
@@ -45,6 +133,10 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
         return remotePeer;
     }
 
+    public InFlightWindow getInFlightWindow() {
+        return inFlightWindow;
+    }
+
     /**
      * Channel激活时的回调方法
      * 当连接建立成功时被调用，记录远程地址信息
@@ -58,6 +150,21 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
         this.remotePeer = this.channel.remoteAddress();
     }
 
+    /**
+     * Channel断开时的回调方法
+     * 连接上的请求不会再收到响应，归还这些请求占用的窗口位置，并以连接异常结束这些请求
+     *
+     * @param ctx ChannelHandlerContext上下文
+     * @throws Exception 处理过程中的异常
+     */
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        super.channelInactive(ctx);
+        for (long requestId : pendingRPC.keys()) {
+            this.failPendingRPC(requestId, new ConnectionException("connection to " + remotePeer + " is closed"));
+        }
+    }
+
     /**
      * Channel注册时的回调方法
      * 当Channel注册到EventLoop时被调用，保存Channel引用
@@ -84,53 +191,272 @@ public class RpcConsumerHandler extends SimpleChannelInboundHandler<RpcProtocol<
         if (protocol == null) {
             return;
         }
-        logger.info("服务消费者接收到的数据===>>>{}", JSONObject.toJSONString(protocol));
-
         RpcHeader header = protocol.getHeader();
+        if (header.getMsgType() == (byte) RpcType.METHOD_TABLE.getType()) {
+            MethodTable methodTable = (MethodTable) (Object) protocol.getBody();
+            this.methodIds = methodTable.getMethodIds();
+            logger.info("receive method table from {}, methods: {}", remotePeer, methodIds.size());
+            return;
+        }
+        // 只输出消息头，序列化整个协议对象会在I/O线程中触发响应体的反序列化
+        logger.info("服务消费者接收到的数据===>>>{}", JSONObject.toJSONString(header));
+
         long requestId = header.getRequestId();
-        RPCFuture rpcFuture = pendingRPC.remove(requestId);
-        if (rpcFuture != null) {
-            rpcFuture.done(protocol);
+        RPCFuture rpcFuture = this.removePendingRPC(requestId);
+        if (rpcFuture != null && !rpcFuture.isDone()) {
+            if (header.getStatus() == RpcStatus.OVERLOADED.getCode() && overloadListener != null
+                    && overloadListener.onOverloaded(this, rpcFuture, protocol)) {
+                return;
+            }
+            if (header.getStatus() == RpcStatus.UNKNOWN_METHOD_ID.getCode() && this.resendFullRequest(rpcFuture, protocol)) {
+                return;
+            }
+            if (!rpcFuture.done(protocol) && protocol instanceof LazyRpcProtocol) {
+                ((LazyRpcProtocol<RpcResponse>) protocol).release();
+            }
+        } else if (protocol instanceof LazyRpcProtocol) {
+            // 没有等待该响应的请求，或者请求已经取消、超时，直接释放未反序列化的响应体
+            ((LazyRpcProtocol<RpcResponse>) protocol).release();
         }
     }
 
     /**
      * 服务消费者向服务提供者发送RPC请求
      *
-     * @param protocol RPC协议请求对象，包含调用信息
+     * @param protocol    RPC协议请求对象，包含调用信息
+     * @param callOptions 调用在本地使用的参数
+     * @throws com.lb.rpc.common.exception.InFlightLimitException 连接的在途窗口已满
      */
-    public RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, boolean async, boolean oneway) {
+    public RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions, boolean async, boolean oneway) {
         logger.info("服务消费者发送的数据===>>>{}", JSONObject.toJSONString(protocol));
-        return oneway ? this.sendRequestOneway(protocol) : async ? sendRequestAsync(protocol) : this.sendRequestSync(protocol);
+        return oneway ? this.sendRequestOneway(protocol, callOptions) : async ? sendRequestAsync(protocol, callOptions) : this.sendRequestSync(protocol, callOptions);
     }
 
-    private RPCFuture sendRequestSync(RpcProtocol<RpcRequest> protocol) {
-        RPCFuture rpcFuture = this.getRpcFuture(protocol);
-        channel.writeAndFlush(protocol);
+    private RPCFuture sendRequestSync(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions) {
+        RPCFuture rpcFuture = this.getRpcFuture(protocol, callOptions);
+        this.writeAndFlush(protocol, callOptions);
         return rpcFuture;
     }
 
-    private RPCFuture sendRequestAsync(RpcProtocol<RpcRequest> protocol) {
-        RPCFuture rpcFuture = this.getRpcFuture(protocol);
+    private RPCFuture sendRequestAsync(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions) {
+        RPCFuture rpcFuture = this.getRpcFuture(protocol, callOptions);
         // 如果是异步调用，则将RPCFuture放入RpcContext
         RpcContext.getContext().setRpcFuture(rpcFuture);
-        channel.writeAndFlush(protocol);
+        this.writeAndFlush(protocol, callOptions);
         return null;
     }
 
-    private RPCFuture sendRequestOneway(RpcProtocol<RpcRequest> protocol) {
-        channel.writeAndFlush(protocol);
+    private RPCFuture sendRequestOneway(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions) {
+        channel.writeAndFlush(this.toMethodIdRequest(protocol, callOptions));
         return null;
     }
 
-    private RPCFuture getRpcFuture(RpcProtocol<RpcRequest> protocol) {
-        RPCFuture rpcFuture = new RPCFuture(protocol);
+    /**
+     * 使用调用方提前创建的RPCFuture发送请求，用于连接建立完成后再发送排队的请求，以及过载转发和方法表过期后重新发送请求
+     *
+     * @param protocol  RPC协议请求对象
+     * @param rpcFuture 等待响应的RPCFuture，调用在本地使用的参数从中获取
+     * @throws com.lb.rpc.common.exception.InFlightLimitException 连接的在途窗口已满
+     */
+    public void sendRequest(RpcProtocol<RpcRequest> protocol, RPCFuture rpcFuture) {
+        this.registerRpcFuture(protocol, rpcFuture);
+        this.writeAndFlush(protocol, rpcFuture.getCallOptions());
+    }
+
+    private RPCFuture getRpcFuture(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions) {
+        return this.registerRpcFuture(protocol, new RPCFuture(protocol, callOptions, RpcContext.getContext().getCallbackExecutor(callbackExecutor)));
+    }
+
+    private RPCFuture registerRpcFuture(RpcProtocol<RpcRequest> protocol, RPCFuture rpcFuture) {
+        // 单向调用不等待响应，不占用窗口，只有需要响应的请求才会进入这里
+        inFlightWindow.acquire();
         RpcHeader header = protocol.getHeader();
         long requestId = header.getRequestId();
         pendingRPC.put(requestId, rpcFuture);
+        this.scheduleTimeout(rpcFuture);
+        // 调用方取消、orTimeout超时等不经过响应结束RPCFuture时，移除等待响应的请求并取消超时检查
+        rpcFuture.whenComplete((result, cause) -> {
+            if (cause != null) {
+                this.removePendingRPC(requestId);
+                Timeout timeout = rpcFuture.getTimeout();
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+            }
+        });
+        return rpcFuture;
+    }
+
+    /**
+     * 为等待响应的请求添加超时检查，过载转发的请求沿用第一次发送时的超时检查，只更新请求所在的连接
+     */
+    private void scheduleTimeout(RPCFuture rpcFuture) {
+        Timeout timeout = rpcFuture.getTimeout();
+        if (timeout != null) {
+            ((PendingRequestTimeout) timeout.task()).handler = this;
+            return;
+        }
+        long callTimeout = rpcFuture.getCallOptions().getTimeout();
+        long timeoutMillis = callTimeout > 0 ? callTimeout : requestTimeout;
+        if (timeoutMillis > 0) {
+            rpcFuture.setTimeout(RequestTimeoutTimer.newTimeout(new PendingRequestTimeout(this, rpcFuture, timeoutMillis), timeoutMillis));
+        }
+    }
+
+    /**
+     * 发送需要响应的请求，发送失败时不会再收到响应，直接归还窗口位置并以连接异常结束请求
+     */
+    private void writeAndFlush(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions) {
+        long requestId = protocol.getHeader().getRequestId();
+        channel.writeAndFlush(this.toMethodIdRequest(protocol, callOptions)).addListener((ChannelFutureListener) future -> {
+            if (!future.isSuccess()) {
+                logger.error("send request {} failed.", requestId, future.cause());
+                this.failPendingRPC(requestId, new ConnectionException("send request " + requestId + " failed", future.cause()));
+            }
+        });
+    }
+
+    /**
+     * 连接上已经收到方法表时，把请求替换为只携带方法id和参数的请求，方法id同时写入消息头，服务提供者不反序列化消息体即可选择线程池
+     * 原请求保留在RPCFuture中，过载转发到其他服务提供者实例时仍然使用完整的请求
+     */
+    private RpcProtocol<RpcRequest> toMethodIdRequest(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions) {
+        String methodKey = callOptions.getMethodKey();
+        if (!methodIdDispatch || methodKey == null) {
+            return protocol;
+        }
+        Map<String, Integer> methodIds = this.methodIds;
+        if (methodIds == null) {
+            this.requestMethodTable(protocol.getHeader().getSerializationType());
+            return protocol;
+        }
+        Integer methodId = methodIds.get(methodKey);
+        if (methodId == null) {
+            return protocol;
+        }
+        RpcRequest request = protocol.getBody();
+        RpcRequest methodIdRequest = new RpcRequest();
+        methodIdRequest.setMethodId(methodId);
+        methodIdRequest.setParameters(request.getParameters());
+        methodIdRequest.setAsync(request.getAsync());
+        methodIdRequest.setOneway(request.getOneway());
+        RpcProtocol<RpcRequest> methodIdProtocol = new RpcProtocol<>();
+        methodIdProtocol.setHeader(RpcHeaderFactory.getMethodIdRequestHeader(protocol.getHeader(), methodId));
+        methodIdProtocol.setBody(methodIdRequest);
+        return methodIdProtocol;
+    }
+
+    /**
+     * 服务提供者增减服务后方法id发生变化，丢弃连接上的方法表，之后的请求重新获取方法表，
+     * 并在客户端线程池中把RPCFuture中保留的完整请求重新发送到该连接
+     *
+     * @return 请求已重新发送、由重新发送的请求结束RPCFuture时返回true
+     */
+    private boolean resendFullRequest(RPCFuture rpcFuture, RpcProtocol<RpcResponse> response) {
+        RpcProtocol<RpcRequest> protocol = rpcFuture.getRequestRpcProtocol();
+        if (protocol == null) {
+            return false;
+        }
+        logger.warn("method table of {} is outdated, resend request {} without method id", remotePeer, protocol.getHeader().getRequestId());
+        // 在I/O线程中重置，新的方法表只会在这之后到达
+        this.methodIds = null;
+        this.methodTableRequested.set(false);
+        try {
+            ClientThreadPool.submit(() -> {
+                boolean resent = false;
+                try {
+                    this.sendRequest(protocol, rpcFuture);
+                    resent = true;
+                } catch (RuntimeException e) {
+                    logger.warn("resend request {} failed.", protocol.getHeader().getRequestId(), e);
+                }
+                if ((resent || !rpcFuture.done(response)) && response instanceof LazyRpcProtocol) {
+                    ((LazyRpcProtocol<RpcResponse>) response).release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 客户端线程池已满，不再重新发送，以方法id不存在的响应结束RPCFuture
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 向服务提供者请求方法表，使用与第一个请求相同的序列化类型
+     */
+    private void requestMethodTable(String serializationType) {
+        if (!methodTableRequested.compareAndSet(false, true)) {
+            return;
+        }
+        RpcProtocol<MethodTable> protocol = new RpcProtocol<>();
+        protocol.setHeader(RpcHeaderFactory.getMethodTableHeader(serializationType));
+        protocol.setBody(new MethodTable());
+        channel.writeAndFlush(protocol);
+    }
+
+    /**
+     * 移除等待响应的请求并归还窗口位置，只有成功移除的一方归还，避免重复归还
+     */
+    private RPCFuture removePendingRPC(long requestId) {
+        RPCFuture rpcFuture = pendingRPC.remove(requestId);
+        if (rpcFuture != null) {
+            inFlightWindow.release();
+        }
         return rpcFuture;
     }
 
+    /**
+     * 移除等待响应的请求并以异常结束，在I/O线程中调用，结束RPCFuture会执行调用方组合的后续操作，因此放到客户端线程池中执行
+     */
+    private void failPendingRPC(long requestId, Throwable cause) {
+        RPCFuture rpcFuture = this.removePendingRPC(requestId);
+        if (rpcFuture != null) {
+            completeExceptionally(rpcFuture, cause);
+        }
+    }
+
+    /**
+     * 在客户端线程池中以异常结束RPCFuture，线程池和溢出队列都已满时直接在当前线程中结束，请求不会一直等待
+     */
+    private static void completeExceptionally(RPCFuture rpcFuture, Throwable cause) {
+        try {
+            ClientThreadPool.submit(() -> rpcFuture.completeExceptionally(cause));
+        } catch (RejectedExecutionException e) {
+            rpcFuture.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 请求的超时检查任务，到期时把请求从所在连接的等待响应列表中移除，并以超时异常结束RPCFuture
+     * 结束RPCFuture会执行调用方组合的后续操作，因此放到客户端线程池中执行，不占用时间轮的线程
+     */
+    private static class PendingRequestTimeout implements TimerTask {
+        private volatile RpcConsumerHandler handler;
+        private final RPCFuture rpcFuture;
+        private final long timeoutMillis;
+
+        private PendingRequestTimeout(RpcConsumerHandler handler, RPCFuture rpcFuture, long timeoutMillis) {
+            this.handler = handler;
+            this.rpcFuture = rpcFuture;
+            this.timeoutMillis = timeoutMillis;
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            RpcProtocol<RpcRequest> protocol = rpcFuture.getRequestRpcProtocol();
+            long requestId = protocol.getHeader().getRequestId();
+            // 先移除等待响应的请求，RPCFuture已经被调用方取消时同样需要归还窗口位置
+            handler.removePendingRPC(requestId);
+            if (rpcFuture.isDone()) {
+                return;
+            }
+            completeExceptionally(rpcFuture, new RpcException("Timeout exception after " + timeoutMillis
+                    + "ms. Request id: " + requestId
+                    + ". Request class name: " + protocol.getBody().getClassName()
+                    + ". Request method: " + protocol.getBody().getMethodName()));
+        }
+    }
+
     /**
      * 关闭连接
      * 发送一个空的Buffer并在发送完成后关闭连接
@@ -1,36 +1,68 @@
 package com.lb.rpc.consumer.common.handler;
 
+import com.lb.rpc.consumer.common.endpoint.EndpointKey;
+import com.lb.rpc.consumer.common.pool.RpcConsumerHandlerPool;
+import com.lb.rpc.consumer.common.window.InFlightWindow;
 import com.lb.rpc.protocol.meta.ServiceMeta;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+/**
+ * 服务提供者实例的连接池，每个RpcConsumer持有一个，不同配置的RpcConsumer不共用连接
+ */
 public class RpcConsumerHandlerHelper {
 
-    private static Map<String, RpcConsumerHandler> rpcConsumerHandlerMap;
+    private final Map<EndpointKey, RpcConsumerHandlerPool> rpcConsumerHandlerMap = new ConcurrentHashMap<>();
 
-    static {
-        rpcConsumerHandlerMap = new ConcurrentHashMap<>();
+    public static EndpointKey getKey(ServiceMeta key) {
+        return EndpointKey.of(key);
     }
 
-    private static String getKey(ServiceMeta key) {
-        return key.getServiceAddr().concat("_").concat(String.valueOf(key.getServicePort()));
+    public void put(ServiceMeta key, RpcConsumerHandlerPool value) {
+        rpcConsumerHandlerMap.put(getKey(key), value);
     }
 
-    public static void put(ServiceMeta key, RpcConsumerHandler value) {
-        rpcConsumerHandlerMap.put(getKey(key), value);
+    public RpcConsumerHandlerPool get(ServiceMeta key) {
+        return rpcConsumerHandlerMap.get(getKey(key));
+    }
+
+    /**
+     * 获取服务提供者实例对应的连接池，不存在时创建，同一实例只会创建一个连接池，
+     * 并发调用方共用同一个连接池，也就共用连接池中同一个槽位的建连过程
+     */
+    public RpcConsumerHandlerPool computeIfAbsent(EndpointKey endpointKey, ServiceMeta serviceMeta, Function<ServiceMeta, RpcConsumerHandlerPool> mappingFunction) {
+        // 连接池已存在时直接返回，不进入computeIfAbsent的加锁路径
+        RpcConsumerHandlerPool pool = rpcConsumerHandlerMap.get(endpointKey);
+        if (pool != null) {
+            return pool;
+        }
+        return rpcConsumerHandlerMap.computeIfAbsent(endpointKey, k -> mappingFunction.apply(serviceMeta));
     }
 
-    public static RpcConsumerHandler get(ServiceMeta key) {
-        return rpcConsumerHandlerMap.get(key);
+    /**
+     * 获取每个连接的在途窗口，key为"ip_port#连接序号"格式
+     */
+    public Map<String, InFlightWindow> getInFlightWindows() {
+        Map<String, InFlightWindow> inFlightWindows = new HashMap<>();
+        rpcConsumerHandlerMap.forEach((key, pool) -> {
+            List<RpcConsumerHandler> handlers = pool.getActiveHandlers();
+            for (int i = 0; i < handlers.size(); i++) {
+                inFlightWindows.put(key + "#" + i, handlers.get(i).getInFlightWindow());
+            }
+        });
+        return inFlightWindows;
     }
 
-    public static void closeRpcClientHandler() {
-        Collection<RpcConsumerHandler> rpcConsumerHandlers = rpcConsumerHandlerMap.values();
-        if (rpcConsumerHandlers != null) {
-            rpcConsumerHandlers.stream().forEach(rpcConsumerHandler -> rpcConsumerHandler.close());
+    public void closeRpcClientHandler() {
+        Collection<RpcConsumerHandlerPool> rpcConsumerHandlerPools = rpcConsumerHandlerMap.values();
+        if (rpcConsumerHandlerPools != null) {
+            rpcConsumerHandlerPools.stream().forEach(rpcConsumerHandlerPool -> rpcConsumerHandlerPool.close());
         }
-        rpcConsumerHandlers.clear();
+        rpcConsumerHandlerPools.clear();
     }
 }
@@ -2,17 +2,42 @@ package com.lb.rpc.consumer.common.initializer;
 
 import com.lb.rpc.codec.RpcDecoder;
 import com.lb.rpc.codec.RpcEncoder;
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
 import com.lb.rpc.consumer.common.handler.RpcConsumerHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
 
 public class RpcConsumerInitializer extends ChannelInitializer<SocketChannel> {
+
+    private final ConsumerConfig consumerConfig;
+
+    private final RpcConsumerHandler.OverloadListener overloadListener;
+
+    public RpcConsumerInitializer() {
+        this(new ConsumerConfig());
+    }
+
+    public RpcConsumerInitializer(ConsumerConfig consumerConfig) {
+        this(consumerConfig, null);
+    }
+
+    public RpcConsumerInitializer(ConsumerConfig consumerConfig, RpcConsumerHandler.OverloadListener overloadListener) {
+        this.consumerConfig = consumerConfig;
+        this.overloadListener = overloadListener;
+    }
+
     @Override
     protected void initChannel(SocketChannel channel) throws Exception {
         ChannelPipeline cp = channel.pipeline();
+        if (consumerConfig.isFlushConsolidation()) {
+            // 请求由业务线程写入，没有读操作进行时也需要合并，同一轮事件循环内的写入共用一次flush
+            cp.addLast(new FlushConsolidationHandler(consumerConfig.getExplicitFlushAfterFlushes(), true));
+        }
         cp.addLast(new RpcEncoder());
-        cp.addLast(new RpcDecoder());
-        cp.addLast(new RpcConsumerHandler());
+        // 默认响应体延迟到调用方或回调线程中反序列化，不占用I/O线程
+        cp.addLast(new RpcDecoder(consumerConfig.isLazyDecode(), consumerConfig.getMaxBodyLength()));
+        cp.addLast(new RpcConsumerHandler(consumerConfig, overloadListener));
     }
 }
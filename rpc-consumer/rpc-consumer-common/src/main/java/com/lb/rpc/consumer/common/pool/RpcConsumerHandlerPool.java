@@ -0,0 +1,231 @@
+package com.lb.rpc.consumer.common.pool;
+
+import com.lb.rpc.common.exception.ConnectionException;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.consumer.common.handler.RpcConsumerHandler;
+import com.lb.rpc.protocol.meta.ServiceMeta;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 单个服务提供者实例的连接池
+ * 对同一个服务提供者维护最多N个连接，把请求分散到多个Channel和多个EventLoop线程上，
+ * 连接在需要时才建立（延迟预热），已断开的连接在下次选择时被剔除并重新建立
+ * <p>
+ * 建立连接是异步的，每个槽位保存建立连接的Future，同一槽位正在建立的连接由所有调用方共用，
+ * 建立连接失败时该服务提供者实例在一段时间内被标记为不健康，期间选择连接直接失败，不会影响其他实例
+ */
+public class RpcConsumerHandlerPool {
+
+    private final Logger logger = LoggerFactory.getLogger(RpcConsumerHandlerPool.class);
+
+    /**
+     * 建立到服务提供者的连接，返回的Future在连接可用时完成
+     */
+    @FunctionalInterface
+    public interface Connector {
+        CompletableFuture<RpcConsumerHandler> connect(ServiceMeta serviceMeta);
+    }
+
+    private final ServiceMeta serviceMeta;
+
+    private final Connector connector;
+
+    /**
+     * 连接选择策略：roundrobin、leastpending
+     */
+    private final String selectStrategy;
+
+    /**
+     * 不健康时长的初始值和最大值，单位毫秒
+     */
+    private final long unhealthyInterval;
+    private final long unhealthyMaxInterval;
+
+    /**
+     * 连接槽位，槽位为null表示连接尚未建立或已被剔除
+     */
+    private final AtomicReferenceArray<CompletableFuture<RpcConsumerHandler>> handlers;
+
+    private final AtomicInteger roundRobinIndex = new AtomicInteger();
+
+    /**
+     * 连续建立连接失败的次数，建立连接成功后清零
+     */
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * 在该时间之前服务提供者实例被视为不健康
+     */
+    private volatile long unhealthyUntil;
+
+    public RpcConsumerHandlerPool(ServiceMeta serviceMeta, ConsumerConfig consumerConfig, Connector connector) {
+        this.serviceMeta = serviceMeta;
+        this.connector = connector;
+        this.selectStrategy = consumerConfig.getConnectionSelectStrategy() == null ? RpcConstants.CONNECTION_SELECT_ROUND_ROBIN : consumerConfig.getConnectionSelectStrategy();
+        this.unhealthyInterval = consumerConfig.getConnectRetryInterval();
+        this.unhealthyMaxInterval = consumerConfig.getConnectRetryMaxInterval();
+        this.handlers = new AtomicReferenceArray<>(Math.max(consumerConfig.getConnectionsPerEndpoint(), 1));
+    }
+
+    /**
+     * 选择一个连接，连接已建立时返回已完成的Future，正在建立时返回建立连接的Future
+     */
+    public CompletableFuture<RpcConsumerHandler> select() {
+        if (handlers.length() == 1) {
+            return this.getOrConnect(0);
+        }
+        if (RpcConstants.CONNECTION_SELECT_LEAST_PENDING.equals(selectStrategy)) {
+            return this.selectLeastPending();
+        }
+        int index = (roundRobinIndex.getAndIncrement() & Integer.MAX_VALUE) % handlers.length();
+        return this.getOrConnect(index);
+    }
+
+    /**
+     * 选择在途请求最少的连接，已有连接都在处理请求且还有空槽位时，才建立新的连接
+     */
+    private CompletableFuture<RpcConsumerHandler> selectLeastPending() {
+        CompletableFuture<RpcConsumerHandler> selected = null;
+        CompletableFuture<RpcConsumerHandler> connecting = null;
+        int minPending = Integer.MAX_VALUE;
+        int emptySlot = -1;
+        for (int i = 0; i < handlers.length(); i++) {
+            CompletableFuture<RpcConsumerHandler> future = handlers.get(i);
+            if (future != null && !future.isDone()) {
+                connecting = future;
+                continue;
+            }
+            RpcConsumerHandler handler = getActiveHandler(future);
+            if (handler == null) {
+                if (emptySlot < 0) {
+                    emptySlot = i;
+                }
+                continue;
+            }
+            int pending = handler.getInFlightWindow().getInFlight();
+            if (pending < minPending) {
+                minPending = pending;
+                selected = future;
+            }
+        }
+        if (selected != null && (minPending == 0 || emptySlot < 0)) {
+            return selected;
+        }
+        if (emptySlot >= 0) {
+            return this.getOrConnect(emptySlot);
+        }
+        return connecting;
+    }
+
+    /**
+     * 获取槽位上的连接，连接不存在或已断开时建立新连接
+     */
+    private CompletableFuture<RpcConsumerHandler> getOrConnect(int index) {
+        while (true) {
+            CompletableFuture<RpcConsumerHandler> future = handlers.get(index);
+            if (future != null && (!future.isDone() || getActiveHandler(future) != null)) {
+                return future;
+            }
+            if (this.isUnhealthy()) {
+                return failedFuture(new ConnectionException("rpc server " + serviceMeta.getServiceAddr() + ":" + serviceMeta.getServicePort()
+                        + " is unhealthy after " + consecutiveFailures.get() + " consecutive connect failures"));
+            }
+            CompletableFuture<RpcConsumerHandler> connectFuture = new CompletableFuture<>();
+            if (!handlers.compareAndSet(index, future, connectFuture)) {
+                // 其他线程已经在该槽位上建立连接，使用其他线程的结果
+                continue;
+            }
+            RpcConsumerHandler inactive = future == null ? null : future.getNow(null);
+            if (inactive != null) {
+                logger.info("evict inactive connection {} of rpc server {}:{}", inactive.getRemotePeer(), serviceMeta.getServiceAddr(), serviceMeta.getServicePort());
+                inactive.close();
+            }
+            this.connect(index, connectFuture);
+            return connectFuture;
+        }
+    }
+
+    private void connect(int index, CompletableFuture<RpcConsumerHandler> connectFuture) {
+        CompletableFuture<RpcConsumerHandler> future;
+        try {
+            future = connector.connect(serviceMeta);
+        } catch (Exception e) {
+            future = failedFuture(e);
+        }
+        future.whenComplete((handler, cause) -> {
+            if (cause != null) {
+                int failures = consecutiveFailures.incrementAndGet();
+                long interval = Math.min(unhealthyInterval << Math.min(failures - 1, 16), unhealthyMaxInterval);
+                unhealthyUntil = System.currentTimeMillis() + interval;
+                logger.warn("connect rpc server {}:{} failed {} times, mark unhealthy for {}ms", serviceMeta.getServiceAddr(), serviceMeta.getServicePort(), failures, interval);
+                handlers.compareAndSet(index, connectFuture, null);
+                connectFuture.completeExceptionally(cause);
+                return;
+            }
+            consecutiveFailures.set(0);
+            unhealthyUntil = 0;
+            // 连接关闭时立即清空槽位，下次选择到该槽位时重新建立连接
+            handler.getChannel().closeFuture().addListener(f -> handlers.compareAndSet(index, connectFuture, null));
+            connectFuture.complete(handler);
+        });
+    }
+
+    /**
+     * 服务提供者实例是否处于不健康状态
+     */
+    public boolean isUnhealthy() {
+        return unhealthyUntil > System.currentTimeMillis();
+    }
+
+    private static RpcConsumerHandler getActiveHandler(CompletableFuture<RpcConsumerHandler> future) {
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        RpcConsumerHandler handler = future.getNow(null);
+        return handler != null && handler.getChannel() != null && handler.getChannel().isActive() ? handler : null;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable cause) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+    /**
+     * 获取当前所有可用的连接
+     */
+    public List<RpcConsumerHandler> getActiveHandlers() {
+        List<RpcConsumerHandler> activeHandlers = new ArrayList<>(handlers.length());
+        for (int i = 0; i < handlers.length(); i++) {
+            RpcConsumerHandler handler = getActiveHandler(handlers.get(i));
+            if (handler != null) {
+                activeHandlers.add(handler);
+            }
+        }
+        return activeHandlers;
+    }
+
+    public int size() {
+        return handlers.length();
+    }
+
+    /**
+     * 关闭连接池中的所有连接，正在建立的连接在建立完成后关闭
+     */
+    public void close() {
+        for (int i = 0; i < handlers.length(); i++) {
+            CompletableFuture<RpcConsumerHandler> future = handlers.getAndSet(i, null);
+            if (future != null) {
+                future.thenAccept(RpcConsumerHandler::close);
+            }
+        }
+    }
+}
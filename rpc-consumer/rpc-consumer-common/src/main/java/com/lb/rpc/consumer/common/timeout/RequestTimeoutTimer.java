@@ -0,0 +1,30 @@
+package com.lb.rpc.consumer.common.timeout;
+
+import com.lb.rpc.constants.RpcConstants;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.TimerTask;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 等待响应的请求的超时检查
+ * 进程内所有连接共享一个时间轮，添加和取消超时检查都是O(1)的操作，
+ * 时间轮的线程只负责把到期的任务取出来执行，在途请求数量很大时也不需要为每个请求维护定时任务的堆
+ */
+public class RequestTimeoutTimer {
+
+    private static final HashedWheelTimer TIMER = new HashedWheelTimer(new DefaultThreadFactory("rpc-request-timeout", true),
+            RpcConstants.REQUEST_TIMEOUT_TICK_DURATION, TimeUnit.MILLISECONDS, RpcConstants.REQUEST_TIMEOUT_TICKS_PER_WHEEL);
+
+    /**
+     * 添加超时检查
+     *
+     * @param task    到期时执行的任务，在时间轮的线程中执行，不能阻塞
+     * @param timeout 超时时间，单位毫秒
+     */
+    public static Timeout newTimeout(TimerTask task, long timeout) {
+        return TIMER.newTimeout(task, timeout, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,150 @@
+package com.lb.rpc.consumer.common.window;
+
+import com.lb.rpc.common.exception.InFlightLimitException;
+import com.lb.rpc.constants.RpcConstants;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个连接的在途请求窗口
+ * 限制一个连接上已发送但未收到响应的请求数量，服务提供者处理变慢时避免无限堆积请求
+ * 同时统计窗口占用情况，供监控使用
+ */
+public class InFlightWindow {
+
+    /**
+     * 最大在途请求数，小于等于0表示不限制
+     */
+    private final int maxInFlight;
+
+    /**
+     * 窗口已满时的处理策略
+     */
+    private final String policy;
+
+    /**
+     * block策略下的等待超时时间，单位毫秒
+     */
+    private final long acquireTimeout;
+
+    /**
+     * 不限制时为null
+     */
+    private final Semaphore permits;
+
+    /**
+     * 当前在途请求数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 在途请求数的峰值
+     */
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * 因窗口已满被拒绝的请求数
+     */
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * 因窗口已满发生过等待的请求数
+     */
+    private final AtomicLong blockedCount = new AtomicLong();
+
+    public InFlightWindow(int maxInFlight, String policy, long acquireTimeout) {
+        this.maxInFlight = maxInFlight;
+        this.policy = policy == null ? RpcConstants.IN_FLIGHT_POLICY_BLOCK : policy;
+        this.acquireTimeout = acquireTimeout;
+        this.permits = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+    }
+
+    /**
+     * 占用一个窗口位置
+     * block策略下窗口已满时等待，超时抛出异常；failfast和spill策略下窗口已满时直接抛出异常，
+     * spill策略由调用方捕获异常后转发到其他连接
+     *
+     * @throws InFlightLimitException 窗口已满
+     */
+    public void acquire() {
+        if (permits != null && !permits.tryAcquire()) {
+            if (!RpcConstants.IN_FLIGHT_POLICY_BLOCK.equals(policy)) {
+                rejectedCount.incrementAndGet();
+                throw new InFlightLimitException("in flight window is full, max in flight: " + maxInFlight);
+            }
+            blockedCount.incrementAndGet();
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InFlightLimitException("interrupted while waiting for in flight window", e);
+            }
+            if (!acquired) {
+                rejectedCount.incrementAndGet();
+                throw new InFlightLimitException("wait for in flight window timeout, max in flight: " + maxInFlight + ", timeout: " + acquireTimeout + "ms");
+            }
+        }
+        int current = inFlight.incrementAndGet();
+        int peak;
+        while (current > (peak = peakInFlight.get()) && !peakInFlight.compareAndSet(peak, current)) {
+            // 更新峰值
+        }
+    }
+
+    /**
+     * 释放一个窗口位置，请求收到响应、发送失败或连接断开时调用
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    /**
+     * 窗口占用率，不限制时返回0
+     */
+    public double getOccupancy() {
+        return maxInFlight > 0 ? (double) inFlight.get() / maxInFlight : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "InFlightWindow{" +
+                "maxInFlight=" + maxInFlight +
+                ", policy='" + policy + '\'' +
+                ", inFlight=" + inFlight.get() +
+                ", peakInFlight=" + peakInFlight.get() +
+                ", rejectedCount=" + rejectedCount.get() +
+                ", blockedCount=" + blockedCount.get() +
+                '}';
+    }
+}
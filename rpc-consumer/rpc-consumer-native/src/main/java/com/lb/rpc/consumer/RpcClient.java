@@ -1,7 +1,10 @@
 package com.lb.rpc.consumer;
 
 import com.lb.rpc.common.exception.RegistryException;
+import com.lb.rpc.constants.RpcConstants;
 import com.lb.rpc.consumer.common.RpcConsumer;
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.consumer.common.window.InFlightWindow;
 import com.lb.rpc.proxy.api.ProxyFactory;
 import com.lb.rpc.proxy.api.async.IAsyncObjectProxy;
 import com.lb.rpc.proxy.api.config.ProxyConfig;
@@ -15,6 +18,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 
+import java.util.Map;
+
 public class RpcClient {
     private final Logger logger = LoggerFactory.getLogger(RpcClient.class);
 
@@ -54,6 +59,26 @@ public class RpcClient {
      */
     private boolean oneway;
 
+    /**
+     * 压缩类型
+     */
+    private String compressType;
+
+    /**
+     * 压缩阈值
+     */
+    private int compressThreshold;
+
+    /**
+     * 服务消费者的网络配置
+     */
+    private ConsumerConfig consumerConfig;
+
+    /**
+     * 按consumerConfig创建的服务消费者，每个RpcClient一个，在第一次创建代理时创建，shutdown时关闭
+     */
+    private volatile RpcConsumer rpcConsumer;
+
     public RpcClient(String registryAddress, String registryType, String registryLoadBalanceType, String proxy, String serviceVersion, String serviceGroup, String serializationType, long timeout, boolean async, boolean oneway) {
         this.serviceVersion = serviceVersion;
         this.proxy = proxy;
@@ -62,9 +87,22 @@ public class RpcClient {
         this.serializationType = serializationType;
         this.async = async;
         this.oneway = oneway;
+        this.compressType = RpcConstants.COMPRESS_NONE;
+        this.compressThreshold = RpcConstants.COMPRESS_THRESHOLD_DEFAULT;
         this.registryService = this.getRegistryService(registryAddress, registryType, registryLoadBalanceType);
     }
 
+    public RpcClient(String registryAddress, String registryType, String registryLoadBalanceType, String proxy, String serviceVersion, String serviceGroup, String serializationType, long timeout, boolean async, boolean oneway, String compressType, int compressThreshold) {
+        this(registryAddress, registryType, registryLoadBalanceType, proxy, serviceVersion, serviceGroup, serializationType, timeout, async, oneway);
+        this.compressType = compressType;
+        this.compressThreshold = compressThreshold;
+    }
+
+    public RpcClient(String registryAddress, String registryType, String registryLoadBalanceType, String proxy, String serviceVersion, String serviceGroup, String serializationType, long timeout, boolean async, boolean oneway, String compressType, int compressThreshold, ConsumerConfig consumerConfig) {
+        this(registryAddress, registryType, registryLoadBalanceType, proxy, serviceVersion, serviceGroup, serializationType, timeout, async, oneway, compressType, compressThreshold);
+        this.consumerConfig = consumerConfig;
+    }
+
     private RegistryService getRegistryService(String registryAddress, String registryType, String registryLoadBalanceType) {
         if (StringUtils.isEmpty(registryType)) {
             throw new IllegalArgumentException("registry type is null");
@@ -82,15 +120,42 @@ public class RpcClient {
 
     public <T> T create(Class<T> interfaceClass) {
         ProxyFactory proxyFactory = ExtensionLoader.getExtension(ProxyFactory.class, proxy);
-        proxyFactory.init(new ProxyConfig(interfaceClass, serviceVersion, serviceGroup, serializationType, timeout, registryService, RpcConsumer.getInstance(), async, oneway));
+        proxyFactory.init(new ProxyConfig(interfaceClass, serviceVersion, serviceGroup, serializationType, timeout, registryService, this.getRpcConsumer(), async, oneway, compressType, compressThreshold));
         return proxyFactory.getProxy(interfaceClass);
     }
 
     public <T> IAsyncObjectProxy createAsync(Class<T> interfaceClass) {
-        return new ObjectProxy<T>(interfaceClass, serviceVersion, serviceGroup, timeout, registryService, RpcConsumer.getInstance(), serializationType, async, oneway);
+        return new ObjectProxy<T>(interfaceClass, serviceVersion, serviceGroup, timeout, registryService, this.getRpcConsumer(), serializationType, async, oneway, compressType, compressThreshold);
+    }
+
+    /**
+     * 获取每个连接的在途窗口，用于监控窗口占用情况，key为"ip_port#连接序号"格式
+     */
+    public Map<String, InFlightWindow> getInFlightWindows() {
+        return this.getRpcConsumer().getInFlightWindows();
     }
 
+    /**
+     * 关闭该RpcClient的服务消费者，不影响其他RpcClient
+     */
     public void shutdown() {
-        RpcConsumer.getInstance().close();
+        RpcConsumer consumer = rpcConsumer;
+        if (consumer != null) {
+            consumer.close();
+        }
+    }
+
+    private RpcConsumer getRpcConsumer() {
+        RpcConsumer consumer = rpcConsumer;
+        if (consumer == null) {
+            synchronized (this) {
+                consumer = rpcConsumer;
+                if (consumer == null) {
+                    consumer = RpcConsumer.create(consumerConfig);
+                    rpcConsumer = consumer;
+                }
+            }
+        }
+        return consumer;
     }
 }
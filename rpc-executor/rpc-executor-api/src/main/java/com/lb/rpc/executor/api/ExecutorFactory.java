@@ -0,0 +1,23 @@
+package com.lb.rpc.executor.api;
+
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.spi.annotation.SPI;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 服务提供者执行业务请求的线程池工厂
+ * SPI扩展实例是单例，每个服务端或服务需要各自的线程池，因此扩展点是工厂而不是线程池本身
+ */
+@SPI(RpcConstants.EXECUTOR_FIXED)
+public interface ExecutorFactory {
+
+    /**
+     * 创建执行业务请求的线程池，线程池满时execute抛出RejectedExecutionException
+     *
+     * @param name    线程名前缀
+     * @param threads 线程数，不限制并发的实现忽略该参数
+     * @param queues  等待队列大小，小于等于0表示不排队，不使用队列的实现忽略该参数
+     */
+    Executor create(String name, int threads, int queues);
+}
@@ -0,0 +1,21 @@
+package com.lb.rpc.executor.direct;
+
+import com.lb.rpc.executor.api.ExecutorFactory;
+import com.lb.rpc.spi.annotation.SPIClass;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 直接在调用线程中执行，服务提供者上即为Netty的I/O线程，省去线程切换和排队的开销
+ * 只适用于不阻塞、执行很快的简单方法，阻塞的方法会拖慢同一I/O线程上的所有连接
+ */
+@SPIClass
+public class DirectExecutorFactory implements ExecutorFactory {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Override
+    public Executor create(String name, int threads, int queues) {
+        return DIRECT;
+    }
+}
@@ -0,0 +1,36 @@
+package com.lb.rpc.executor.fixed;
+
+import com.lb.rpc.executor.api.ExecutorFactory;
+import com.lb.rpc.spi.annotation.SPIClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 固定大小的平台线程池，线程和队列都满时拒绝请求
+ */
+@SPIClass
+public class FixedExecutorFactory implements ExecutorFactory {
+    private final Logger logger = LoggerFactory.getLogger(FixedExecutorFactory.class);
+
+    @Override
+    public Executor create(String name, int threads, int queues) {
+        logger.info("create fixed executor {}, threads: {}, queues: {}", name, threads, queues);
+        int size = Math.max(threads, 1);
+        BlockingQueue<Runnable> queue = queues > 0 ? new ArrayBlockingQueue<>(queues) : new SynchronousQueue<>();
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(size, size, 600L, TimeUnit.SECONDS, queue,
+                r -> {
+                    Thread thread = new Thread(r, name + "-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
@@ -0,0 +1,58 @@
+package com.lb.rpc.executor.virtual;
+
+import com.lb.rpc.executor.api.ExecutorFactory;
+import com.lb.rpc.executor.fixed.FixedExecutorFactory;
+import com.lb.rpc.spi.annotation.SPIClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 每个请求一个虚拟线程，阻塞的业务方法不再受线程数限制
+ * 项目以Java 17编译，运行时检测Executors.newVirtualThreadPerTaskExecutor是否存在，
+ * 运行在Java 21以下版本时回退到固定大小的平台线程池
+ */
+@SPIClass
+public class VirtualExecutorFactory implements ExecutorFactory {
+    private final Logger logger = LoggerFactory.getLogger(VirtualExecutorFactory.class);
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = lookupVirtualThreadPerTaskExecutor();
+
+    private final FixedExecutorFactory fallback = new FixedExecutorFactory();
+
+    @Override
+    public Executor create(String name, int threads, int queues) {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR == null) {
+            logger.warn("virtual threads are not supported by java {}, executor {} falls back to fixed", System.getProperty("java.version"), name);
+            return fallback.create(name, threads, queues);
+        }
+        try {
+            logger.info("create virtual thread per task executor {}", name);
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke();
+        } catch (Throwable e) {
+            logger.warn("create virtual thread per task executor {} failed, falls back to fixed", name, e);
+            return fallback.create(name, threads, queues);
+        }
+    }
+
+    /**
+     * 虚拟线程是否可用
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    private static MethodHandle lookupVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
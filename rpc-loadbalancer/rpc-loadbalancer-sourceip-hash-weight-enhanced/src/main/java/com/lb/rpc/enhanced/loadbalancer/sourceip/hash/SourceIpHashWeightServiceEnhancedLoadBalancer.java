@@ -1,5 +1,9 @@
 package com.lb.rpc.enhanced.loadbalancer.sourceip.hash;
 
+import com.lb.rpc.common.utils.StringUtils;
+import com.lb.rpc.loadbalancer.base.BaseEnhancedServiceLoadBalancer;
+import com.lb.rpc.protocol.meta.ServiceMeta;
+import com.lb.rpc.spi.annotation.SPIClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
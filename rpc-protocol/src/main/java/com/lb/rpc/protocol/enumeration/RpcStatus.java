@@ -6,7 +6,19 @@ package com.lb.rpc.protocol.enumeration;
 public enum RpcStatus {
 
     SUCCESS(0),
-    FAIL(1);
+    FAIL(1),
+    /**
+     * 服务或方法的隔离线程池已满，请求未被执行
+     */
+    BULKHEAD_FULL(2),
+    /**
+     * 服务提供者过载，请求未被执行，消费者可以转发到其他服务提供者实例
+     */
+    OVERLOADED(3),
+    /**
+     * 请求携带的方法id不在服务提供者当前的方法表中，请求未被执行，消费者需要重新获取方法表并发送完整的请求
+     */
+    UNKNOWN_METHOD_ID(4);
 
     private final int code;
 
@@ -7,7 +7,11 @@ public enum RpcType {
 
     REQUEST(1),
     RESPONSE(2),
-    HEARTBEAT(3);
+    HEARTBEAT(3),
+    /**
+     * 方法表，消费者在连接上请求，服务提供者响应该连接上可用的方法id
+     */
+    METHOD_TABLE(4);
 
     private final int type;
 
@@ -4,29 +4,50 @@ package com.lb.rpc.protocol.header;
 import java.io.Serializable;
 
 /**
- * 消息头，目前固定为32个字节
+ * 消息头，v1固定为32个字节，v2固定为19个字节
  */
 public class RpcHeader implements Serializable {
      /*
+    v1:
     +---------------------------------------------------------------+
     | 魔数 2byte | 报文类型 1byte | 状态 1byte |     消息 ID 8byte      |
     +---------------------------------------------------------------+
     |           序列化类型 16byte      |        数据长度 4byte          |
     +---------------------------------------------------------------+
+
+    v2:
+    +---------------------------------------------------------------------------+
+    | 魔数 2byte | 版本 1byte | 报文类型 1byte | 状态 1byte | 标志位 1byte | 序列化ID 1byte |
+    +---------------------------------------------------------------------------+
+    |                 消息 ID 8byte                |        数据长度 4byte          |
+    +---------------------------------------------------------------------------+
+    标志位中有FLAG_METHOD_ID时，数据长度之后、消息体之前为4字节的方法id，计入数据长度
     */
 
     // 魔术 2byte
     private short magic;
+    // 版本 1byte，v1消息头中不存在该字段，解码v1消息时为1
+    private byte version;
     // 报文类型 1byte
     private byte msgType;
     // 状态 1byte
     private byte status;
+    // 标志位 1byte，仅v2消息头
+    private byte flags;
     // 消息ID 8byte
     private long requestId;
     // 序列化类型 16byte，不足16字节后面补0，约定序列化类型长度最多不能超过16
     private String serializationType;
+    // 序列化ID 1byte，仅v2消息头，与serializationType一一对应
+    private byte serializationId;
     // 消息长度 4byte
     private int msgLen;
+    // 方法id 4byte，仅v2请求，服务提供者不反序列化消息体即可按方法id选择线程池，0表示不携带
+    private int methodId;
+    // 压缩类型，不参与编码，只用于编码器决定是否压缩消息体，实际使用的压缩ID写入标志位
+    private String compressType;
+    // 压缩阈值，不参与编码，序列化后的消息体不小于该字节数时才尝试压缩
+    private int compressThreshold;
 
     public short getMagic() {
         return magic;
@@ -36,6 +57,14 @@ public class RpcHeader implements Serializable {
         this.magic = magic;
     }
 
+    public byte getVersion() {
+        return version;
+    }
+
+    public void setVersion(byte version) {
+        this.version = version;
+    }
+
     public byte getMsgType() {
         return msgType;
     }
@@ -52,6 +81,14 @@ public class RpcHeader implements Serializable {
         this.status = status;
     }
 
+    public byte getFlags() {
+        return flags;
+    }
+
+    public void setFlags(byte flags) {
+        this.flags = flags;
+    }
+
     public long getRequestId() {
         return requestId;
     }
@@ -68,6 +105,14 @@ public class RpcHeader implements Serializable {
         this.serializationType = serializationType;
     }
 
+    public byte getSerializationId() {
+        return serializationId;
+    }
+
+    public void setSerializationId(byte serializationId) {
+        this.serializationId = serializationId;
+    }
+
     public int getMsgLen() {
         return msgLen;
     }
@@ -75,4 +120,28 @@ public class RpcHeader implements Serializable {
     public void setMsgLen(int msgLen) {
         this.msgLen = msgLen;
     }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public void setMethodId(int methodId) {
+        this.methodId = methodId;
+    }
+
+    public String getCompressType() {
+        return compressType;
+    }
+
+    public void setCompressType(String compressType) {
+        this.compressType = compressType;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
 }
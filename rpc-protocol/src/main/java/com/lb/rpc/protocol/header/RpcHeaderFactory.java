@@ -1,6 +1,7 @@
 package com.lb.rpc.protocol.header;
 
 import com.lb.rpc.common.id.IdFactory;
+import com.lb.rpc.common.utils.SerializationUtils;
 import com.lb.rpc.constants.RpcConstants;
 import com.lb.rpc.protocol.enumeration.RpcType;
 
@@ -8,12 +9,49 @@ public class RpcHeaderFactory {
 
     public static RpcHeader getRequestHeader(String serializationType) {
         RpcHeader header = new RpcHeader();
-        Long requestId = IdFactory.getId();
-        header.setMagic(RpcConstants.MAGIC);
+        long requestId = IdFactory.getId();
+        header.setMagic(RpcConstants.MAGIC_V2);
+        header.setVersion(RpcConstants.VERSION_V2);
         header.setRequestId(requestId);
         header.setMsgType((byte) RpcType.REQUEST.getType());
         header.setStatus((byte) 0x1);
         header.setSerializationType(serializationType);
+        header.setSerializationId(SerializationUtils.getSerializationId(serializationType));
+        return header;
+    }
+
+    /**
+     * 获取方法表请求的消息头，使用与服务请求相同的序列化类型
+     */
+    public static RpcHeader getMethodTableHeader(String serializationType) {
+        RpcHeader header = getRequestHeader(serializationType);
+        header.setMsgType((byte) RpcType.METHOD_TABLE.getType());
+        return header;
+    }
+
+    /**
+     * 获取按方法id调用的请求的消息头，复制原请求的消息头，原请求转发或重新发送时不携带方法id
+     */
+    public static RpcHeader getMethodIdRequestHeader(RpcHeader header, int methodId) {
+        RpcHeader methodIdHeader = new RpcHeader();
+        methodIdHeader.setMagic(header.getMagic());
+        methodIdHeader.setVersion(header.getVersion());
+        methodIdHeader.setMsgType(header.getMsgType());
+        methodIdHeader.setStatus(header.getStatus());
+        methodIdHeader.setFlags(header.getFlags());
+        methodIdHeader.setRequestId(header.getRequestId());
+        methodIdHeader.setSerializationType(header.getSerializationType());
+        methodIdHeader.setSerializationId(header.getSerializationId());
+        methodIdHeader.setCompressType(header.getCompressType());
+        methodIdHeader.setCompressThreshold(header.getCompressThreshold());
+        methodIdHeader.setMethodId(methodId);
+        return methodIdHeader;
+    }
+
+    public static RpcHeader getRequestHeader(String serializationType, String compressType, int compressThreshold) {
+        RpcHeader header = getRequestHeader(serializationType);
+        header.setCompressType(compressType);
+        header.setCompressThreshold(compressThreshold);
         return header;
     }
 }
@@ -0,0 +1,35 @@
+package com.lb.rpc.protocol.meta;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 服务提供者的方法表，作为METHOD_TABLE消息的消息体
+ * 消费者请求时为空表，服务提供者响应所有服务方法的签名key与方法id的映射，
+ * 消费者之后在该连接上只需要发送方法id和参数
+ */
+public class MethodTable implements Serializable {
+
+    private static final long serialVersionUID = 3519387326474195672L;
+
+    /**
+     * key为RpcServiceHelper.buildMethodKey拼接的方法签名，value为大于0的方法id
+     */
+    private Map<String, Integer> methodIds = new HashMap<>();
+
+    public MethodTable() {
+    }
+
+    public MethodTable(Map<String, Integer> methodIds) {
+        this.methodIds = methodIds;
+    }
+
+    public Map<String, Integer> getMethodIds() {
+        return methodIds;
+    }
+
+    public void setMethodIds(Map<String, Integer> methodIds) {
+        this.methodIds = methodIds;
+    }
+}
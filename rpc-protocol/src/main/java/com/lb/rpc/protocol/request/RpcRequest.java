@@ -15,6 +15,10 @@ public class RpcRequest extends RpcMessage {
     private Object[] parameters;
     private String version;
     private String group;
+    /**
+     * 服务提供者方法表中的方法id，大于0时服务提供者按id定位服务和方法，请求中不再携带类名、方法名、参数类型、版本和分组
+     */
+    private int methodId;
 
     public String getClassName() {
         return className;
@@ -63,4 +67,12 @@ public class RpcRequest extends RpcMessage {
     public void setGroup(String group) {
         this.group = group;
     }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    public void setMethodId(int methodId) {
+        this.methodId = methodId;
+    }
 }
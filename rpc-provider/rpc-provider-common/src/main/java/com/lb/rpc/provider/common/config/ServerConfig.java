@@ -0,0 +1,290 @@
+package com.lb.rpc.provider.common.config;
+
+import com.lb.rpc.constants.RpcConstants;
+
+/**
+ * 服务提供者的网络配置
+ */
+public class ServerConfig {
+
+    /**
+     * 是否开启刷新合并，开启后同一轮事件循环内的多个响应只触发一次flush系统调用
+     */
+    private boolean flushConsolidation;
+
+    /**
+     * 开启刷新合并时，最多合并的刷新次数，达到后立即刷新
+     */
+    private int explicitFlushAfterFlushes = RpcConstants.EXPLICIT_FLUSH_AFTER_FLUSHES_DEFAULT;
+
+    /**
+     * 网络传输方式：nio、epoll、auto，epoll和auto在当前系统不支持epoll时回退到NIO
+     */
+    private String transportType = RpcConstants.TRANSPORT_NIO;
+
+    /**
+     * 接收连接的线程数，使用epoll传输时通过SO_REUSEPORT在同一端口上绑定多个监听Channel，
+     * 由内核在多个线程间分发新连接；NIO传输只能绑定一次，始终为1
+     */
+    private int acceptorThreads = 1;
+
+    /**
+     * 处理I/O的worker线程数，0表示使用Netty默认的线程数（CPU核数 * 2）
+     */
+    private int ioThreads;
+
+    /**
+     * 连接等待队列大小
+     */
+    private int backlog = RpcConstants.SERVER_BACKLOG_DEFAULT;
+
+    /**
+     * 是否关闭Nagle算法
+     */
+    private boolean tcpNoDelay = true;
+
+    /**
+     * 是否开启TCP保活
+     */
+    private boolean keepAlive = true;
+
+    /**
+     * Socket发送缓冲区大小，单位字节，小于等于0表示使用系统默认值
+     */
+    private int sendBufferSize;
+
+    /**
+     * Socket接收缓冲区大小，单位字节，小于等于0表示使用系统默认值
+     */
+    private int receiveBufferSize;
+
+    /**
+     * 写缓冲区高水位，单位字节，待发送的响应超过该值时连接变为不可写，暂停读取该连接上的新请求
+     */
+    private int writeBufferHighWaterMark = RpcConstants.WRITE_BUFFER_HIGH_WATER_MARK_DEFAULT;
+
+    /**
+     * 写缓冲区低水位，单位字节，待发送的响应降到该值以下时连接恢复可写，继续读取新请求
+     */
+    private int writeBufferLowWaterMark = RpcConstants.WRITE_BUFFER_LOW_WATER_MARK_DEFAULT;
+
+    /**
+     * ByteBuf分配器类型：pooled、unpooled
+     */
+    private String allocatorType = RpcConstants.ALLOCATOR_POOLED;
+
+    /**
+     * 执行业务请求的线程池类型：fixed、virtual、direct，服务上的@RpcService可以单独指定
+     */
+    private String executorType = RpcConstants.EXECUTOR_FIXED;
+
+    /**
+     * 业务线程池的线程数，virtual和direct忽略该配置
+     */
+    private int executorThreads = RpcConstants.EXECUTOR_THREADS_DEFAULT;
+
+    /**
+     * 业务线程池的等待队列大小，virtual和direct忽略该配置
+     */
+    private int executorQueues = RpcConstants.EXECUTOR_QUEUES_DEFAULT;
+
+    /**
+     * 每个共用线程池等待执行的请求数上限，达到后新请求直接响应OVERLOADED，小于等于0表示不限制，
+     * 隔离线程池按各自的并发数和等待队列限制，不受过载控制
+     */
+    private int overloadMaxQueued;
+
+    /**
+     * 请求排队时间的目标值，单位毫秒，排队时间在overloadInterval内持续超过该值时判定为过载，
+     * 过载期间从队列中取出的请求不再执行，直接响应OVERLOADED，小于等于0表示不按排队时间判断
+     */
+    private int overloadTargetDelay;
+
+    /**
+     * 过载判断间隔，单位毫秒
+     */
+    private int overloadInterval = RpcConstants.OVERLOAD_INTERVAL_DEFAULT;
+
+    /**
+     * 允许的最大请求体长度，单位字节，压缩的请求体同时限制解压后的长度，超过时关闭连接
+     */
+    private int maxBodyLength = RpcConstants.MAX_BODY_LENGTH_DEFAULT;
+
+    /**
+     * 是否延迟反序列化请求体，默认开启：I/O线程只拆包，请求体在业务线程池中反序列化，
+     * 未压缩的请求体需要在I/O线程中拷贝一次，避免排队的请求持有累积缓冲区导致其无法复用；
+     * 关闭后请求体在I/O线程中直接从累积缓冲区的切片反序列化，不拷贝，适合请求体较小并且反序列化很快的场景
+     */
+    private boolean lazyDecode = true;
+
+    public ServerConfig() {
+    }
+
+    public boolean isFlushConsolidation() {
+        return flushConsolidation;
+    }
+
+    public void setFlushConsolidation(boolean flushConsolidation) {
+        this.flushConsolidation = flushConsolidation;
+    }
+
+    public int getExplicitFlushAfterFlushes() {
+        return explicitFlushAfterFlushes;
+    }
+
+    public void setExplicitFlushAfterFlushes(int explicitFlushAfterFlushes) {
+        this.explicitFlushAfterFlushes = explicitFlushAfterFlushes;
+    }
+
+    public String getTransportType() {
+        return transportType;
+    }
+
+    public void setTransportType(String transportType) {
+        this.transportType = transportType;
+    }
+
+    public int getAcceptorThreads() {
+        return acceptorThreads;
+    }
+
+    public void setAcceptorThreads(int acceptorThreads) {
+        this.acceptorThreads = acceptorThreads;
+    }
+
+    public int getIoThreads() {
+        return ioThreads;
+    }
+
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+
+    public int getBacklog() {
+        return backlog;
+    }
+
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public boolean isKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    public void setWriteBufferHighWaterMark(int writeBufferHighWaterMark) {
+        this.writeBufferHighWaterMark = writeBufferHighWaterMark;
+    }
+
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    public void setWriteBufferLowWaterMark(int writeBufferLowWaterMark) {
+        this.writeBufferLowWaterMark = writeBufferLowWaterMark;
+    }
+
+    public String getAllocatorType() {
+        return allocatorType;
+    }
+
+    public void setAllocatorType(String allocatorType) {
+        this.allocatorType = allocatorType;
+    }
+
+    public String getExecutorType() {
+        return executorType;
+    }
+
+    public void setExecutorType(String executorType) {
+        this.executorType = executorType;
+    }
+
+    public int getExecutorThreads() {
+        return executorThreads;
+    }
+
+    public void setExecutorThreads(int executorThreads) {
+        this.executorThreads = executorThreads;
+    }
+
+    public int getExecutorQueues() {
+        return executorQueues;
+    }
+
+    public void setExecutorQueues(int executorQueues) {
+        this.executorQueues = executorQueues;
+    }
+
+    public int getOverloadMaxQueued() {
+        return overloadMaxQueued;
+    }
+
+    public void setOverloadMaxQueued(int overloadMaxQueued) {
+        this.overloadMaxQueued = overloadMaxQueued;
+    }
+
+    public int getOverloadTargetDelay() {
+        return overloadTargetDelay;
+    }
+
+    public void setOverloadTargetDelay(int overloadTargetDelay) {
+        this.overloadTargetDelay = overloadTargetDelay;
+    }
+
+    public int getOverloadInterval() {
+        return overloadInterval;
+    }
+
+    public void setOverloadInterval(int overloadInterval) {
+        this.overloadInterval = overloadInterval;
+    }
+
+    public int getMaxBodyLength() {
+        return maxBodyLength;
+    }
+
+    public void setMaxBodyLength(int maxBodyLength) {
+        this.maxBodyLength = maxBodyLength;
+    }
+
+    public boolean isLazyDecode() {
+        return lazyDecode;
+    }
+
+    public void setLazyDecode(boolean lazyDecode) {
+        this.lazyDecode = lazyDecode;
+    }
+}
@@ -0,0 +1,93 @@
+package com.lb.rpc.provider.common.executor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 服务或方法的隔离线程池（舱壁）
+ * 正在执行和等待执行的请求总数不超过并发数加等待队列大小，超过时立即拒绝，
+ * 对所有类型的线程池生效，包括不限制线程数的virtual
+ */
+public class BulkheadExecutor implements Executor {
+
+    private final String name;
+
+    private final Executor delegate;
+
+    private final int maxConcurrent;
+
+    private final int maxQueued;
+
+    private final Semaphore permits;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    public BulkheadExecutor(String name, Executor delegate, int maxConcurrent, int maxQueued) {
+        this.name = name;
+        this.delegate = delegate;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = Math.max(maxQueued, 0);
+        this.permits = new Semaphore(maxConcurrent + this.maxQueued);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!permits.tryAcquire()) {
+            rejectedCount.increment();
+            throw new BulkheadFullException("bulkhead " + name + " is full, max concurrent: " + maxConcurrent + ", max queued: " + maxQueued);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejectedCount.increment();
+            throw new BulkheadFullException("bulkhead " + name + " rejected request: " + e.getMessage());
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Executor getDelegate() {
+        return delegate;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * 正在执行和等待执行的请求数
+     */
+    public int getOccupied() {
+        return maxConcurrent + maxQueued - permits.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadExecutor{" +
+                "name='" + name + '\'' +
+                ", maxConcurrent=" + maxConcurrent +
+                ", maxQueued=" + maxQueued +
+                ", occupied=" + getOccupied() +
+                ", rejectedCount=" + getRejectedCount() +
+                '}';
+    }
+}
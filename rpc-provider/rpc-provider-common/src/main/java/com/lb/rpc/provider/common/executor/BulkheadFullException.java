@@ -0,0 +1,15 @@
+package com.lb.rpc.provider.common.executor;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 隔离线程池已满时拒绝请求抛出的异常
+ */
+public class BulkheadFullException extends RejectedExecutionException {
+
+    private static final long serialVersionUID = -6278432193657460374L;
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,154 @@
+package com.lb.rpc.provider.common.executor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 服务提供者的过载控制，参考CoDel算法按排队深度和排队时间拒绝请求
+ * <p>
+ * 请求进入线程池前检查等待执行的请求数，超过上限直接拒绝；请求从队列中取出时检查排队时间，
+ * 排队时间在一个判断间隔内始终超过目标值说明队列无法自行消化，进入过载状态，
+ * 过载期间排队超过目标值的请求不再执行，直到出现排队时间低于目标值的请求才退出过载状态。
+ * 被拒绝的请求响应OVERLOADED，消费者可以立即转发到其他服务提供者实例，而不是等到超时。
+ * 每个共用线程池各自统计，隔离线程池已经限制了并发数和等待队列，不再做过载控制
+ */
+public class OverloadController {
+
+    /**
+     * 不做过载控制，用于隔离线程池
+     */
+    public static final OverloadController DISABLED = new OverloadController(0, 0, 0);
+
+    private final int maxQueued;
+
+    private final long targetDelayNanos;
+
+    private final long intervalNanos;
+
+    private final boolean enabled;
+
+    /**
+     * 等待执行的请求数
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * 排队时间持续超过目标值到该时间点时进入过载状态，0表示排队时间未超过目标值
+     */
+    private volatile long firstAboveTime;
+
+    private volatile boolean overloaded;
+
+    private final LongAdder rejectedByQueueDepth = new LongAdder();
+
+    private final LongAdder rejectedByQueueDelay = new LongAdder();
+
+    private final LongAdder rejectedByExecutor = new LongAdder();
+
+    public OverloadController(int maxQueued, int targetDelay, int interval) {
+        this.maxQueued = maxQueued;
+        this.targetDelayNanos = TimeUnit.MILLISECONDS.toNanos(targetDelay);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(interval, 1));
+        this.enabled = maxQueued > 0 || targetDelay > 0;
+    }
+
+    /**
+     * 是否开启了过载控制，未开启时不统计排队情况，只统计线程池拒绝的次数
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 请求进入线程池前调用
+     *
+     * @return 等待执行的请求数已达上限时返回false
+     */
+    public boolean tryEnqueue() {
+        if (!enabled) {
+            return true;
+        }
+        // 先计数再判断，超过上限时回退，并发调用时等待执行的请求数也不会超过上限
+        if (queued.incrementAndGet() > maxQueued && maxQueued > 0) {
+            queued.decrementAndGet();
+            rejectedByQueueDepth.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 请求已通过tryEnqueue但被线程池拒绝
+     */
+    public void onRejected() {
+        if (enabled) {
+            queued.decrementAndGet();
+        }
+        rejectedByExecutor.increment();
+    }
+
+    /**
+     * 请求从队列中取出、开始执行前调用
+     *
+     * @param enqueueTime 请求进入线程池时的System.nanoTime()
+     * @return 处于过载状态且该请求排队时间超过目标值时返回false，请求不应再执行
+     */
+    public boolean tryDequeue(long enqueueTime) {
+        if (!enabled) {
+            return true;
+        }
+        queued.decrementAndGet();
+        if (targetDelayNanos <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        if (now - enqueueTime < targetDelayNanos) {
+            firstAboveTime = 0;
+            overloaded = false;
+            return true;
+        }
+        long aboveTime = firstAboveTime;
+        if (aboveTime == 0) {
+            firstAboveTime = now + intervalNanos;
+            return true;
+        }
+        if (!overloaded && now - aboveTime < 0) {
+            return true;
+        }
+        overloaded = true;
+        rejectedByQueueDelay.increment();
+        return false;
+    }
+
+    public boolean isOverloaded() {
+        return overloaded;
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejectedByQueueDepth() {
+        return rejectedByQueueDepth.sum();
+    }
+
+    public long getRejectedByQueueDelay() {
+        return rejectedByQueueDelay.sum();
+    }
+
+    public long getRejectedByExecutor() {
+        return rejectedByExecutor.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "OverloadController{" +
+                "overloaded=" + overloaded +
+                ", queued=" + queued.get() +
+                ", rejectedByQueueDepth=" + getRejectedByQueueDepth() +
+                ", rejectedByQueueDelay=" + getRejectedByQueueDelay() +
+                ", rejectedByExecutor=" + getRejectedByExecutor() +
+                '}';
+    }
+}
@@ -0,0 +1,212 @@
+package com.lb.rpc.provider.common.executor;
+
+import com.lb.rpc.annotation.RpcService;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.executor.api.ExecutorFactory;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.spi.loader.ExtensionLoader;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 服务提供者执行业务请求的线程池
+ * 服务端配置的线程池作为默认线程池，@RpcService指定了不同线程池类型的服务使用对应类型的线程池，
+ * 同一类型的线程池在这些服务之间共用；配置了并发数的服务和方法使用各自独立的隔离线程池。
+ * 默认线程池和按类型共用的线程池各自有独立的过载控制，一个线程池排队过久不会拒绝其他线程池的请求
+ */
+public class ProviderExecutors {
+    private final Logger logger = LoggerFactory.getLogger(ProviderExecutors.class);
+
+    /**
+     * 方法级别线程池的key中服务key与方法名的分隔符
+     */
+    private static final String METHOD_SEPARATOR = "#";
+
+    private final Executor defaultExecutor;
+
+    /**
+     * key为服务的className:version:group，只包含与默认线程池不同的服务
+     */
+    private final Map<String, Executor> serviceExecutors;
+
+    /**
+     * key为className:version:group#methodName
+     */
+    private final Map<String, Executor> methodExecutors;
+
+    /**
+     * 所有的隔离线程池，key与serviceExecutors或methodExecutors相同，用于监控
+     */
+    private final Map<String, BulkheadExecutor> bulkheads;
+
+    /**
+     * 按类型创建的共用线程池
+     */
+    private final Map<String, Executor> sharedExecutors;
+
+    /**
+     * 创建的所有线程池，用于关闭
+     */
+    private final List<Executor> createdExecutors;
+
+    /**
+     * 默认线程池和按类型共用的线程池的过载控制，key为线程池
+     */
+    private final Map<Executor, OverloadController> overloadControllers;
+
+    /**
+     * 按类型共用的线程池的过载控制，key为线程池类型，用于监控
+     */
+    private final Map<String, OverloadController> sharedOverloadControllers;
+
+    public ProviderExecutors(Executor defaultExecutor) {
+        this.defaultExecutor = defaultExecutor;
+        this.serviceExecutors = Collections.emptyMap();
+        this.methodExecutors = Collections.emptyMap();
+        this.bulkheads = Collections.emptyMap();
+        this.sharedExecutors = Collections.emptyMap();
+        this.createdExecutors = Collections.emptyList();
+        this.overloadControllers = Collections.singletonMap(defaultExecutor, new OverloadController(0, 0, 0));
+        this.sharedOverloadControllers = Collections.emptyMap();
+    }
+
+    public ProviderExecutors(ServerConfig serverConfig, Map<String, RpcService> rpcServiceMap) {
+        String defaultType = StringUtils.isEmpty(serverConfig.getExecutorType()) ? RpcConstants.EXECUTOR_FIXED : serverConfig.getExecutorType();
+        this.sharedExecutors = new HashMap<>();
+        this.createdExecutors = new ArrayList<>();
+        this.bulkheads = new LinkedHashMap<>();
+        this.overloadControllers = new IdentityHashMap<>();
+        this.sharedOverloadControllers = new LinkedHashMap<>();
+        this.defaultExecutor = this.getSharedExecutor(defaultType, serverConfig);
+        Map<String, Executor> serviceExecutors = new HashMap<>();
+        Map<String, Executor> methodExecutors = new HashMap<>();
+        rpcServiceMap.forEach((serviceKey, rpcService) -> {
+            String executorType = StringUtils.isEmpty(rpcService.executorType()) ? defaultType : rpcService.executorType();
+            if (rpcService.executorThreads() > 0) {
+                serviceExecutors.put(serviceKey, this.createBulkhead(serviceKey, executorType, rpcService.executorThreads(), rpcService.executorQueues()));
+            } else if (!executorType.equals(defaultType)) {
+                logger.info("service {} uses {} executor", serviceKey, executorType);
+                serviceExecutors.put(serviceKey, this.getSharedExecutor(executorType, serverConfig));
+            }
+            for (String methodExecutor : rpcService.methodExecutors()) {
+                String[] parts = methodExecutor.split(":");
+                if (parts.length < 2 || parts.length > 3 || StringUtils.isEmpty(parts[0])) {
+                    throw new IllegalArgumentException("invalid method executor " + methodExecutor + " of service " + serviceKey + ", expected methodName:threads[:queues]");
+                }
+                int threads = Integer.parseInt(parts[1].trim());
+                int queues = parts.length == 3 ? Integer.parseInt(parts[2].trim()) : 0;
+                if (threads <= 0) {
+                    throw new IllegalArgumentException("invalid method executor " + methodExecutor + " of service " + serviceKey + ", threads must be positive");
+                }
+                String methodKey = serviceKey.concat(METHOD_SEPARATOR).concat(parts[0].trim());
+                methodExecutors.put(methodKey, this.createBulkhead(methodKey, executorType, threads, queues));
+            }
+        });
+        this.serviceExecutors = serviceExecutors;
+        this.methodExecutors = methodExecutors;
+    }
+
+    private Executor getSharedExecutor(String executorType, ServerConfig serverConfig) {
+        return sharedExecutors.computeIfAbsent(executorType, type -> {
+            Executor executor = this.create(type, "rpc-server-" + type, serverConfig.getExecutorThreads(), serverConfig.getExecutorQueues());
+            OverloadController overloadController = new OverloadController(serverConfig.getOverloadMaxQueued(), serverConfig.getOverloadTargetDelay(), serverConfig.getOverloadInterval());
+            overloadControllers.put(executor, overloadController);
+            sharedOverloadControllers.put(type, overloadController);
+            return executor;
+        });
+    }
+
+    private BulkheadExecutor createBulkhead(String key, String executorType, int threads, int queues) {
+        logger.info("{} uses {} bulkhead executor, threads: {}, queues: {}", key, executorType, threads, queues);
+        BulkheadExecutor bulkhead = new BulkheadExecutor(key, this.create(executorType, "rpc-bulkhead-" + key, threads, queues), threads, queues);
+        bulkheads.put(key, bulkhead);
+        return bulkhead;
+    }
+
+    private Executor create(String executorType, String name, int threads, int queues) {
+        Executor executor = ExtensionLoader.getExtension(ExecutorFactory.class, executorType).create(name, threads, queues);
+        createdExecutors.add(executor);
+        return executor;
+    }
+
+    /**
+     * 是否有服务或方法使用非默认的线程池，此时需要按消息头中的方法id或请求体中的服务key选择线程池
+     */
+    public boolean isRouting() {
+        return !serviceExecutors.isEmpty() || !methodExecutors.isEmpty();
+    }
+
+    public Executor getDefaultExecutor() {
+        return defaultExecutor;
+    }
+
+    /**
+     * 获取请求使用的线程池，方法级别的线程池优先于服务级别的线程池
+     *
+     * @param serviceKey className:version:group
+     * @param methodName 方法名
+     */
+    public Executor getExecutor(String serviceKey, String methodName) {
+        if (!methodExecutors.isEmpty() && methodName != null) {
+            Executor executor = methodExecutors.get(serviceKey.concat(METHOD_SEPARATOR).concat(methodName));
+            if (executor != null) {
+                return executor;
+            }
+        }
+        Executor executor = serviceExecutors.get(serviceKey);
+        return executor == null ? defaultExecutor : executor;
+    }
+
+    /**
+     * 获取默认线程池的过载控制，用于监控拒绝次数
+     */
+    public OverloadController getOverloadController() {
+        return overloadControllers.get(defaultExecutor);
+    }
+
+    /**
+     * 获取线程池的过载控制，用于判断是否拒绝请求，隔离线程池返回不做过载控制的OverloadController.DISABLED
+     *
+     * @param executor getDefaultExecutor或getExecutor返回的线程池
+     */
+    public OverloadController getOverloadController(Executor executor) {
+        OverloadController overloadController = overloadControllers.get(executor);
+        return overloadController == null ? OverloadController.DISABLED : overloadController;
+    }
+
+    /**
+     * 获取按类型共用的线程池（包括默认线程池）的过载控制，key为线程池类型，用于监控拒绝次数
+     */
+    public Map<String, OverloadController> getOverloadControllers() {
+        return Collections.unmodifiableMap(sharedOverloadControllers);
+    }
+
+    /**
+     * 获取所有的隔离线程池，用于监控占用和拒绝次数
+     */
+    public Map<String, BulkheadExecutor> getBulkheads() {
+        return Collections.unmodifiableMap(bulkheads);
+    }
+
+    /**
+     * 关闭创建的线程池，已提交的请求继续执行
+     */
+    public void shutdown() {
+        createdExecutors.forEach(executor -> {
+            if (executor instanceof ExecutorService) {
+                ((ExecutorService) executor).shutdown();
+            }
+        });
+    }
+}
@@ -1,13 +1,23 @@
 package com.lb.rpc.provider.common.handler;
 
-import com.lb.rpc.common.helper.RpcServiceHelper;
+import com.lb.rpc.annotation.RpcService;
+import com.lb.rpc.codec.LazyRpcProtocol;
 import com.lb.rpc.common.threadpool.ServerThreadPool;
 import com.lb.rpc.protocol.RpcProtocol;
 import com.lb.rpc.protocol.enumeration.RpcStatus;
 import com.lb.rpc.protocol.enumeration.RpcType;
 import com.lb.rpc.protocol.header.RpcHeader;
+import com.lb.rpc.protocol.meta.MethodTable;
 import com.lb.rpc.protocol.request.RpcRequest;
 import com.lb.rpc.protocol.response.RpcResponse;
+import com.lb.rpc.provider.common.executor.BulkheadFullException;
+import com.lb.rpc.provider.common.executor.OverloadController;
+import com.lb.rpc.provider.common.executor.ProviderExecutors;
+import com.lb.rpc.provider.common.method.ProviderMethodTable.ProviderMethod;
+import com.lb.rpc.provider.common.method.UnknownMethodIdException;
+import com.lb.rpc.provider.common.service.ProviderService;
+import com.lb.rpc.provider.common.service.ProviderServiceRegistry;
+import com.lb.rpc.provider.common.service.ProviderServiceTable;
 import com.lb.rpc.reflect.api.ReflectInvoker;
 import com.lb.rpc.spi.loader.ExtensionLoader;
 import io.netty.channel.ChannelFuture;
@@ -17,7 +27,12 @@ import io.netty.channel.SimpleChannelInboundHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * RPC服务提供者的核心Handler处理类
@@ -31,24 +46,22 @@ import java.util.Map;
  * <p>
  * 【线程模型分析】
  * Netty的EventLoop是单线程的，如果在channelRead0中执行耗时操作会阻塞整个EventLoop，
- * 影响其他连接的处理。因此这里采用线程池异步处理业务逻辑的方式。
+ * 影响其他连接的处理。因此这里采用线程池异步处理业务逻辑的方式，线程池通过ExecutorFactory扩展点创建，
+ * 可以是固定大小的平台线程池、每个请求一个虚拟线程，或者对不阻塞的简单方法直接在I/O线程中执行。
  */
 public class RpcProviderHandler extends SimpleChannelInboundHandler<RpcProtocol<RpcRequest>> {
     private final Logger logger = LoggerFactory.getLogger(RpcProviderHandler.class);
 
     /**
-     * 服务处理器映射表 - RPC服务注册中心
+     * 服务注册表 - RPC服务注册中心
      * <p>
      * 【数据结构设计】
-     * key格式: className:version:group (例如: com.example.UserService:1.0.0:default)
-     * value: 服务的具体实现对象实例
-     * <p>
-     * 这种设计支持：
-     * - 同一个服务的多版本共存
-     * - 服务分组管理
-     * - 快速服务定位（O(1)时间复杂度）
+     * 服务表在扫描服务后创建一次，之后不再修改，增减服务时整体替换：
+     * - 按类名、版本号、分组查找服务，不需要为每个请求拼接服务key
+     * - 按方法id直接定位服务和方法调用器
+     * - 读取服务表不加锁，多个连接共享同一个注册表
      */
-    private final Map<String, Object> handlerMap;
+    private final ProviderServiceRegistry serviceRegistry;
 
     /**
      * 反射调用器 - SPI扩展点
@@ -61,13 +74,31 @@ public class RpcProviderHandler extends SimpleChannelInboundHandler<RpcProtocol<
      * - Javassist：字节码操作灵活
      * - ASM：性能最好，但使用复杂
      */
-    private ReflectInvoker reflectInvoker;
+    private final ReflectInvoker reflectInvoker;
+
+    /**
+     * 执行业务请求的线程池
+     */
+    private final ProviderExecutors providerExecutors;
 
     public RpcProviderHandler(String reflectType, Map<String, Object> handlerMap) {
-        this.handlerMap = handlerMap;
+        this(reflectType, handlerMap, Collections.emptyMap());
+    }
+
+    public RpcProviderHandler(String reflectType, Map<String, Object> handlerMap, Map<String, RpcService> rpcServiceMap) {
+        this(reflectType, handlerMap, rpcServiceMap, new ProviderExecutors(ServerThreadPool::submit));
+    }
+
+    public RpcProviderHandler(String reflectType, Map<String, Object> handlerMap, Map<String, RpcService> rpcServiceMap, ProviderExecutors providerExecutors) {
         // 通过SPI扩展加载器获取指定类型的反射调用器实现
         // 这里体现了依赖倒置原则：依赖抽象而不是具体实现
-        this.reflectInvoker = ExtensionLoader.getExtension(ReflectInvoker.class, reflectType);
+        this(new ProviderServiceRegistry(ExtensionLoader.getExtension(ReflectInvoker.class, reflectType), handlerMap, rpcServiceMap), providerExecutors);
+    }
+
+    public RpcProviderHandler(ProviderServiceRegistry serviceRegistry, ProviderExecutors providerExecutors) {
+        this.serviceRegistry = serviceRegistry;
+        this.providerExecutors = providerExecutors;
+        this.reflectInvoker = serviceRegistry.getReflectInvoker();
     }
 
     /**
@@ -91,65 +122,220 @@ public class RpcProviderHandler extends SimpleChannelInboundHandler<RpcProtocol<
      */
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, RpcProtocol<RpcRequest> protocol) throws Exception {
-        System.out.println("【服务端】收到RPC请求：" + protocol);
-        logger.info("收到RPC请求: {}", protocol);
-        // 将请求处理逻辑提交到线程池，避免阻塞Netty的EventLoop线程
-        // 这是Netty最佳实践：耗时操作应该异步执行，保持EventLoop的高效运转
-        ServerThreadPool.submit(() -> {
-            // 获取请求头，并设置响应类型
-            RpcHeader header = protocol.getHeader();
-            // 将消息类型从REQUEST改为RESPONSE，复用同一个header对象
-            header.setMsgType((byte) RpcType.RESPONSE.getType());
-
-            // 获取请求体
-            RpcRequest request = protocol.getBody();
-            logger.debug("Receive request " + header.getRequestId());
-
-            // 创建响应协议对象和响应体
-            RpcProtocol<RpcResponse> rpcResponseRpcProtocol = new RpcProtocol<>();
-            RpcResponse response = new RpcResponse();
-
-            try {
-                // 处理RPC请求，通过反射调用目标方法
-                Object result = handle(request);
-
-                // 设置响应结果
-                response.setResult(result);
-                response.setAsync(request.getAsync());
-                response.setOneway(request.getOneway());
-
-                // 设置成功状态
-                header.setStatus((byte) RpcStatus.SUCCESS.getCode());
-            } catch (Throwable t) {
-                // 异常处理：记录错误信息并设置失败状态
-                response.setError(t.toString());
-                header.setStatus((byte) RpcStatus.FAIL.getCode());
-                logger.error("RPC Server handle request error", t);
+        logger.debug("收到RPC请求: {}", protocol);
+        if (protocol.getHeader().getMsgType() == (byte) RpcType.METHOD_TABLE.getType()) {
+            this.writeMethodTable(ctx, protocol.getHeader());
+            return;
+        }
+        Executor executor = providerExecutors.getDefaultExecutor();
+        boolean routed = true;
+        if (providerExecutors.isRouting()) {
+            // 有服务单独指定了线程池，按消息头中的方法id选择线程池；没有方法id并且请求体尚未反序列化时，
+            // 先交给默认线程池，在业务线程中反序列化后再转到服务的线程池，不在I/O线程中反序列化
+            int methodId = protocol.getHeader().getMethodId();
+            if (methodId > 0) {
+                executor = this.getExecutor(methodId);
+            } else if (protocol instanceof LazyRpcProtocol && !((LazyRpcProtocol<RpcRequest>) protocol).isMaterialized()) {
+                routed = false;
+            } else {
+                executor = this.getExecutor(protocol.getBody());
             }
+        }
+        this.dispatch(ctx, protocol, executor, routed);
+    }
 
-            // 组装响应协议
-            rpcResponseRpcProtocol.setHeader(header);
-            rpcResponseRpcProtocol.setBody(response);
-
-            // 将响应写回客户端
-            // 1. writeAndFlush会触发编码器将对象转换为字节流
-            // 2. 返回ChannelFuture，可以添加监听器处理写操作完成事件
-            // 3. 这是异步操作，不会阻塞当前线程
-            ctx.writeAndFlush(rpcResponseRpcProtocol).addListener(new ChannelFutureListener() {
-                @Override
-                public void operationComplete(ChannelFuture channelFuture) throws Exception {
-                    logger.debug("Send response for request " + header.getRequestId());
+    /**
+     * 把请求提交到线程池
+     *
+     * @param routed 是否已经选择了请求所属服务的线程池，为false时在业务线程中反序列化请求体后再选择
+     */
+    private void dispatch(ChannelHandlerContext ctx, RpcProtocol<RpcRequest> protocol, Executor executor, boolean routed) {
+        // 过载控制按线程池分别统计，隔离线程池自身限制了排队数，不做过载控制
+        OverloadController overloadController = providerExecutors.getOverloadController(executor);
+        if (!overloadController.tryEnqueue()) {
+            // 等待执行的请求已达上限，立即响应过载，消费者可以转发到其他服务提供者实例
+            this.rejectOverloaded(ctx, protocol, "rpc server is overloaded, too many queued requests");
+            return;
+        }
+        long enqueueTime = overloadController.isEnabled() ? System.nanoTime() : 0L;
+        // 将请求处理逻辑提交到线程池，避免阻塞Netty的EventLoop线程
+        // 这是Netty最佳实践：耗时操作应该异步执行，保持EventLoop的高效运转；direct线程池直接在当前I/O线程中执行
+        try {
+            executor.execute(() -> {
+                if (!overloadController.tryDequeue(enqueueTime)) {
+                    // 过载期间排队过久的请求不再执行，调用方大概率已经等不及，执行只会让队列更长
+                    this.rejectOverloaded(ctx, protocol, "rpc server is overloaded, request queued for "
+                            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - enqueueTime) + "ms");
+                    return;
+                }
+                if (!routed) {
+                    Executor target = this.getExecutor(protocol, executor);
+                    if (target != executor) {
+                        this.dispatch(ctx, protocol, target, true);
+                        return;
+                    }
                 }
+                this.process(ctx, protocol);
             });
+        } catch (BulkheadFullException e) {
+            // 服务或方法的隔离线程池已满，立即响应，不继续排队，拒绝次数由隔离线程池统计
+            logger.warn("RPC Server reject request {}: {}", protocol.getHeader().getRequestId(), e.getMessage());
+            this.writeFailResponse(ctx, protocol.getHeader(), RpcStatus.BULKHEAD_FULL, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // 线程池已满，立即响应过载，不让消费者等到超时
+            overloadController.onRejected();
+            this.rejectOverloaded(ctx, protocol, "rpc server executor is exhausted");
+        }
+    }
+
+    /**
+     * 在业务线程中反序列化请求体后选择线程池，反序列化失败时返回当前线程池，由process响应失败
+     */
+    private Executor getExecutor(RpcProtocol<RpcRequest> protocol, Executor current) {
+        RpcRequest request;
+        try {
+            request = protocol.getBody();
+        } catch (Throwable t) {
+            return current;
+        }
+        return this.getExecutor(request);
+    }
+
+    /**
+     * 按请求体中的方法id或服务key选择线程池
+     */
+    private Executor getExecutor(RpcRequest request) {
+        if (request.getMethodId() > 0) {
+            return this.getExecutor(request.getMethodId());
+        }
+        ProviderService service = serviceRegistry.getServiceTable().getService(request.getClassName(), request.getVersion(), request.getGroup());
+        return service == null ? providerExecutors.getDefaultExecutor() : providerExecutors.getExecutor(service.getServiceKey(), request.getMethodName());
+    }
+
+    /**
+     * 按方法id选择线程池，方法id不存在时使用默认线程池，由process响应方法id不存在
+     */
+    private Executor getExecutor(int methodId) {
+        ProviderMethod providerMethod = serviceRegistry.getServiceTable().getMethodTable().getMethod(methodId);
+        return providerMethod == null ? providerExecutors.getDefaultExecutor() : providerExecutors.getExecutor(providerMethod.getServiceKey(), providerMethod.getMethodName());
+    }
+
+    /**
+     * 服务提供者过载，丢弃尚未反序列化的请求体并响应OVERLOADED
+     */
+    private void rejectOverloaded(ChannelHandlerContext ctx, RpcProtocol<RpcRequest> protocol, String error) {
+        logger.warn("RPC Server reject request {}: {}", protocol.getHeader().getRequestId(), error);
+        if (protocol instanceof LazyRpcProtocol) {
+            ((LazyRpcProtocol<RpcRequest>) protocol).release();
+        }
+        this.writeFailResponse(ctx, protocol.getHeader(), RpcStatus.OVERLOADED, error);
+    }
+
+    /**
+     * 在业务线程中处理请求并写回响应
+     */
+    private void process(ChannelHandlerContext ctx, RpcProtocol<RpcRequest> protocol) {
+        // 获取请求头，并设置响应类型
+        RpcHeader header = protocol.getHeader();
+        // 将消息类型从REQUEST改为RESPONSE，复用同一个header对象
+        header.setMsgType((byte) RpcType.RESPONSE.getType());
+
+        logger.debug("Receive request " + header.getRequestId());
+
+        // 创建响应协议对象和响应体
+        RpcProtocol<RpcResponse> rpcResponseRpcProtocol = new RpcProtocol<>();
+        RpcResponse response = new RpcResponse();
+
+        try {
+            // 获取请求体，解码器开启延迟反序列化时在这里的业务线程中完成反序列化
+            RpcRequest request = protocol.getBody();
+            // 处理RPC请求，通过反射调用目标方法
+            Object result = handle(request, header);
+
+            // 设置响应结果
+            response.setResult(result);
+            response.setAsync(request.getAsync());
+            response.setOneway(request.getOneway());
+
+            // 设置成功状态
+            header.setStatus((byte) RpcStatus.SUCCESS.getCode());
+        } catch (UnknownMethodIdException e) {
+            // 消费者使用的方法表已过期，单独的状态让消费者重新获取方法表并发送完整的请求
+            response.setError(e.getMessage());
+            header.setStatus((byte) RpcStatus.UNKNOWN_METHOD_ID.getCode());
+            logger.warn("RPC Server reject request {}: {}", header.getRequestId(), e.getMessage());
+        } catch (Throwable t) {
+            // 异常处理：记录错误信息并设置失败状态
+            response.setError(t.toString());
+            header.setStatus((byte) RpcStatus.FAIL.getCode());
+            logger.error("RPC Server handle request error", t);
+        }
+
+        // 组装响应协议
+        rpcResponseRpcProtocol.setHeader(header);
+        rpcResponseRpcProtocol.setBody(response);
+
+        // 将响应写回客户端
+        // 1. writeAndFlush会触发编码器将对象转换为字节流
+        // 2. 返回ChannelFuture，可以添加监听器处理写操作完成事件
+        // 3. 这是异步操作，不会阻塞当前线程
+        ctx.writeAndFlush(rpcResponseRpcProtocol).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture channelFuture) throws Exception {
+                logger.debug("Send response for request " + header.getRequestId());
+            }
         });
     }
 
+    /**
+     * 响应消费者的方法表请求，方法表在服务启动时已经构建，直接在I/O线程中响应
+     */
+    private void writeMethodTable(ChannelHandlerContext ctx, RpcHeader header) {
+        header.setStatus((byte) RpcStatus.SUCCESS.getCode());
+        RpcProtocol<MethodTable> methodTableProtocol = new RpcProtocol<>();
+        methodTableProtocol.setHeader(header);
+        methodTableProtocol.setBody(serviceRegistry.getServiceTable().getMethodTable().getMethodTable());
+        ctx.writeAndFlush(methodTableProtocol);
+    }
+
+    /**
+     * 请求未能交给业务线程处理时直接响应失败
+     */
+    private void writeFailResponse(ChannelHandlerContext ctx, RpcHeader header, RpcStatus status, String error) {
+        header.setMsgType((byte) RpcType.RESPONSE.getType());
+        header.setStatus((byte) status.getCode());
+        RpcResponse response = new RpcResponse();
+        response.setError(error);
+        RpcProtocol<RpcResponse> rpcResponseRpcProtocol = new RpcProtocol<>();
+        rpcResponseRpcProtocol.setHeader(header);
+        rpcResponseRpcProtocol.setBody(response);
+        ctx.writeAndFlush(rpcResponseRpcProtocol);
+    }
+
+    /**
+     * 连接可写状态变化时的回调方法
+     * 消费者读取响应的速度跟不上时，待发送的响应超过写缓冲区高水位，连接变为不可写，
+     * 此时暂停读取该连接上的新请求，避免响应在服务端无限堆积；降到低水位以下后恢复读取
+     *
+     * @param ctx 通道处理器上下文
+     * @throws Exception 处理过程中的异常
+     */
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        boolean writable = ctx.channel().isWritable();
+        ctx.channel().config().setAutoRead(writable);
+        if (!writable) {
+            logger.debug("channel {} is not writable, pause reading requests", ctx.channel().remoteAddress());
+        }
+        super.channelWritabilityChanged(ctx);
+    }
+
     /**
      * 处理RPC请求的核心业务逻辑
      * <p>
      * 【服务定位机制】
-     * 1. 根据className、version、group构建服务标识
-     * 2. 从handlerMap中查找对应的服务实现
+     * 1. 请求携带方法id时直接从方法表中获取服务实现和方法调用器
+     * 2. 否则按className、version、group从服务表中查找对应的服务实现
      * 3. 通过反射机制调用目标方法
      * <p>
      * 【反射调用流程】
@@ -158,55 +344,62 @@ public class RpcProviderHandler extends SimpleChannelInboundHandler<RpcProtocol<
      * 3. 委托给SPI反射调用器执行实际调用
      *
      * @param request RPC请求对象，包含调用所需的所有信息
+     * @param header  复用为响应头的请求头，按服务配置设置响应的压缩方式
      * @return 方法执行结果
      * @throws Throwable 方法执行过程中的任何异常
      */
-    private Object handle(RpcRequest request) throws Throwable {
-        String serviceKey = RpcServiceHelper.buildServiceKey(request.getClassName(), request.getVersion(), request.getGroup());
-        logger.info("handlerMap keys: {}", handlerMap.keySet());
-        logger.info("请求key: {}", serviceKey);
-        // 从服务映射表中获取服务实现对象
-        Object serviceBean = handlerMap.get(serviceKey);
-        if (serviceBean == null) {
-            throw new RuntimeException(String.format("service not exist: %s:%s", request.getClassName(), request.getMethodName()));
+    private Object handle(RpcRequest request, RpcHeader header) throws Throwable {
+        // 一次请求只读取一次服务表，服务增减时正在处理的请求继续使用旧的服务表
+        ProviderServiceTable serviceTable = serviceRegistry.getServiceTable();
+        if (request.getMethodId() > 0) {
+            // 按方法id定位，直接使用启动时获取的方法调用器
+            ProviderMethod providerMethod = serviceTable.getMethodTable().getMethod(request.getMethodId());
+            if (providerMethod == null) {
+                throw new UnknownMethodIdException(String.format("method id not exist: %d", request.getMethodId()));
+            }
+            this.setCompress(header, providerMethod.getService());
+            return providerMethod.getMethodInvoker().invoke(providerMethod.getServiceBean(), request.getParameters());
         }
 
-        // 获取服务实现类的Class对象
-        Class<?> serviceClass = serviceBean.getClass();
+        // 按类名、版本号和分组查找服务实现对象
+        ProviderService service = serviceTable.getService(request.getClassName(), request.getVersion(), request.getGroup());
+        if (service == null) {
+            throw new RuntimeException(String.format("service not exist: %s:%s", request.getClassName(), request.getMethodName()));
+        }
+        this.setCompress(header, service);
 
         // 提取请求参数
         String methodName = request.getMethodName();
         Class<?>[] parameterTypes = request.getParameterTypes();
         Object[] parameters = request.getParameters();
 
-        logger.debug(serviceClass.getName());
-        logger.debug(methodName);
-
-        // 输出参数类型信息
-        if (parameterTypes != null && parameterTypes.length > 0) {
-            for (int i = 0; i < parameterTypes.length; ++i) {
-                logger.debug(parameterTypes[i].getName());
-            }
-        }
-
-        // 输出参数值信息
-        if (parameters != null && parameters.length > 0) {
-            for (int i = 0; i < parameters.length; ++i) {
-                logger.debug(parameters[i].toString());
-            }
+        if (logger.isDebugEnabled()) {
+            logger.debug("invoke {}#{}, parameterTypes: {}, parameters: {}", service.getServiceKey(), methodName,
+                    Arrays.toString(parameterTypes), Arrays.toString(parameters));
         }
 
         // 【反射调用】委托给SPI反射调用器执行
         // 这里使用了策略模式，不同的反射实现有不同的性能特征
         return this.reflectInvoker.invokeMethod(
-                serviceBean,      // 目标对象实例
-                serviceClass,     // 目标类的Class对象
-                methodName,       // 方法名
-                parameterTypes,   // 参数类型数组
-                parameters        // 参数值数组
+                service.getServiceBean(),   // 目标对象实例
+                service.getServiceClass(),  // 目标类的Class对象
+                methodName,                 // 方法名
+                parameterTypes,             // 参数类型数组
+                parameters                  // 参数值数组
         );
     }
 
+    /**
+     * 按服务配置压缩响应
+     */
+    private void setCompress(RpcHeader header, ProviderService service) {
+        RpcService rpcService = service.getRpcService();
+        if (rpcService != null) {
+            header.setCompressType(rpcService.compressType());
+            header.setCompressThreshold(rpcService.compressThreshold());
+        }
+    }
+
     /**
      * 异常处理方法 - Netty异常处理机制
      * <p>
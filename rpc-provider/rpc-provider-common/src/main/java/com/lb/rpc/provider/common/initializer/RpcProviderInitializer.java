@@ -0,0 +1,42 @@
+package com.lb.rpc.provider.common.initializer;
+
+import com.lb.rpc.codec.RpcDecoder;
+import com.lb.rpc.codec.RpcEncoder;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.provider.common.executor.ProviderExecutors;
+import com.lb.rpc.provider.common.handler.RpcProviderHandler;
+import com.lb.rpc.provider.common.service.ProviderServiceRegistry;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+
+public class RpcProviderInitializer extends ChannelInitializer<SocketChannel> {
+
+    private final ServerConfig serverConfig;
+
+    private final ProviderServiceRegistry serviceRegistry;
+
+    private final ProviderExecutors providerExecutors;
+
+    public RpcProviderInitializer(ServerConfig serverConfig, ProviderServiceRegistry serviceRegistry, ProviderExecutors providerExecutors) {
+        this.serverConfig = serverConfig;
+        this.serviceRegistry = serviceRegistry;
+        this.providerExecutors = providerExecutors;
+    }
+
+    @Override
+    protected void initChannel(SocketChannel channel) throws Exception {
+        ChannelPipeline cp = channel.pipeline();
+        if (serverConfig.isFlushConsolidation()) {
+            // 0. 刷新合并：响应由业务线程池写入，同一轮事件循环内的多个响应共用一次 flush
+            cp.addLast(new FlushConsolidationHandler(serverConfig.getExplicitFlushAfterFlushes(), true));
+        }
+        // 1. 解码器：将字节流解码成 RPC 请求对象，默认请求体延迟到业务线程池中反序列化
+        cp.addLast(new RpcDecoder(serverConfig.isLazyDecode(), serverConfig.getMaxBodyLength()));
+        // 2. 编码器：将 RPC 响应对象编码成字节流
+        cp.addLast(new RpcEncoder());
+        // 3. 服务端处理器：根据请求调用本地服务实现并返回结果
+        cp.addLast(new RpcProviderHandler(serviceRegistry, providerExecutors));
+    }
+}
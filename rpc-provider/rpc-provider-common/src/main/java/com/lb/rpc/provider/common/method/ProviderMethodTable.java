@@ -0,0 +1,150 @@
+package com.lb.rpc.provider.common.method;
+
+import com.lb.rpc.common.helper.RpcServiceHelper;
+import com.lb.rpc.protocol.meta.MethodTable;
+import com.lb.rpc.provider.common.service.ProviderService;
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.api.ReflectInvoker;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 服务提供者的方法表
+ * 服务启动时为每个服务的每个公共方法分配一个方法id，按方法签名key排序后从1开始编号，
+ * 消费者通过METHOD_TABLE消息获取后，请求中只携带方法id，服务提供者按id直接定位服务实现和方法，
+ * 方法的调用器同样在启动时获取，按方法id调用时不再查找反射调用器的缓存
+ * <p>
+ * 方法表创建后不再修改，服务增减时基于上一个方法表重新创建：已有方法的id保持不变，新增的方法在最大id之后编号，
+ * 删除的方法留空，已经获取过方法表的消费者不会把请求发到错误的方法上
+ */
+public class ProviderMethodTable {
+
+    /**
+     * 方法表中的一个方法
+     */
+    public static class ProviderMethod {
+        private final int methodId;
+        private final ProviderService service;
+        private final String methodName;
+        private final Class<?>[] parameterTypes;
+        private final MethodInvoker methodInvoker;
+
+        public ProviderMethod(int methodId, ProviderService service, Method method, MethodInvoker methodInvoker) {
+            this.methodId = methodId;
+            this.service = service;
+            this.methodName = method.getName();
+            this.parameterTypes = method.getParameterTypes();
+            this.methodInvoker = methodInvoker;
+        }
+
+        public int getMethodId() {
+            return methodId;
+        }
+
+        public ProviderService getService() {
+            return service;
+        }
+
+        public String getServiceKey() {
+            return service.getServiceKey();
+        }
+
+        public Object getServiceBean() {
+            return service.getServiceBean();
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public Class<?>[] getParameterTypes() {
+            return parameterTypes;
+        }
+
+        public MethodInvoker getMethodInvoker() {
+            return methodInvoker;
+        }
+    }
+
+    /**
+     * 下标为方法id，下标0不使用
+     */
+    private final ProviderMethod[] methods;
+
+    /**
+     * 响应给消费者的方法表，只在创建时构建一次，之后不再修改
+     */
+    private final MethodTable methodTable;
+
+    public ProviderMethodTable(Collection<ProviderService> services, ReflectInvoker reflectInvoker) {
+        this(services, reflectInvoker, null);
+    }
+
+    /**
+     * @param services       所有服务
+     * @param reflectInvoker 获取方法调用器的反射调用器
+     * @param previous       上一个方法表，为null时从1开始编号
+     */
+    public ProviderMethodTable(Collection<ProviderService> services, ReflectInvoker reflectInvoker, ProviderMethodTable previous) {
+        Map<String, ProviderMethodCandidate> candidates = new TreeMap<>();
+        for (ProviderService service : services) {
+            for (Method method : service.getServiceClass().getMethods()) {
+                if (method.getDeclaringClass() == Object.class) {
+                    continue;
+                }
+                candidates.put(RpcServiceHelper.buildMethodKey(service.getServiceKey(), method.getName(), method.getParameterTypes()),
+                        new ProviderMethodCandidate(service, method));
+            }
+        }
+        Map<String, Integer> previousIds = previous == null ? new HashMap<>() : previous.methodTable.getMethodIds();
+        int nextId = previous == null ? 1 : previous.methods.length;
+        Map<String, Integer> methodIds = new HashMap<>(candidates.size() * 2);
+        for (String methodKey : candidates.keySet()) {
+            Integer methodId = previousIds.get(methodKey);
+            methodIds.put(methodKey, methodId == null ? nextId++ : methodId);
+        }
+        this.methods = new ProviderMethod[nextId];
+        for (Map.Entry<String, ProviderMethodCandidate> entry : candidates.entrySet()) {
+            ProviderMethodCandidate candidate = entry.getValue();
+            Method method = candidate.method;
+            MethodInvoker methodInvoker;
+            try {
+                methodInvoker = reflectInvoker.getMethodInvoker(candidate.service.getServiceClass(), method.getName(), method.getParameterTypes());
+            } catch (Throwable e) {
+                throw new IllegalStateException("create method invoker of " + entry.getKey() + " failed", e);
+            }
+            int methodId = methodIds.get(entry.getKey());
+            methods[methodId] = new ProviderMethod(methodId, candidate.service, method, methodInvoker);
+        }
+        this.methodTable = new MethodTable(methodIds);
+    }
+
+    /**
+     * 按方法id获取方法，id不存在或方法已删除时返回null
+     */
+    public ProviderMethod getMethod(int methodId) {
+        return methodId > 0 && methodId < methods.length ? methods[methodId] : null;
+    }
+
+    public MethodTable getMethodTable() {
+        return methodTable;
+    }
+
+    public int size() {
+        return methodTable.getMethodIds().size();
+    }
+
+    private static class ProviderMethodCandidate {
+        private final ProviderService service;
+        private final Method method;
+
+        private ProviderMethodCandidate(ProviderService service, Method method) {
+            this.service = service;
+            this.method = method;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.lb.rpc.provider.common.method;
+
+/**
+ * 请求携带的方法id不在当前方法表中时抛出的异常，通常是服务增减后消费者仍在使用旧的方法表
+ */
+public class UnknownMethodIdException extends RuntimeException {
+
+    private static final long serialVersionUID = 4108713539243865712L;
+
+    public UnknownMethodIdException(String message) {
+        super(message);
+    }
+}
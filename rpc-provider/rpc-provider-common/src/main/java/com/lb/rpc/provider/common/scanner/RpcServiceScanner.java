@@ -34,6 +34,22 @@ public class RpcServiceScanner extends ClassScanner {
      */
     public static Map<String, Object> doScannerWithRpcServiceAnnotationFilterAndRegistryService(
             String host, int port, String scanPackage, RegistryService registryService) throws Exception {
+        return doScannerWithRpcServiceAnnotationFilterAndRegistryService(host, port, scanPackage, registryService, new HashMap<>());
+    }
+
+    /**
+     * 扫描并注册 RPC 服务，同时记录每个服务上的 @RpcService 注解
+     *
+     * @param host            本机地址
+     * @param port            本机端口
+     * @param scanPackage     要扫描的包名
+     * @param registryService 注册中心客户端
+     * @param rpcServiceMap   用于保存 key->@RpcService注解 的映射表
+     * @return key->服务实例 的映射表
+     * @throws Exception 扫描或注册异常
+     */
+    public static Map<String, Object> doScannerWithRpcServiceAnnotationFilterAndRegistryService(
+            String host, int port, String scanPackage, RegistryService registryService, Map<String, RpcService> rpcServiceMap) throws Exception {
         Map<String, Object> handlerMap = new HashMap<>();
 
         // 获取包下全部类名
@@ -63,6 +79,8 @@ public class RpcServiceScanner extends ClassScanner {
 
                     // 实例化服务实现，放入 handlerMap
                     handlerMap.put(key, clazz.newInstance());
+                    // 保存服务级别的配置，例如响应的压缩方式
+                    rpcServiceMap.put(key, rpcService);
                     LOGGER.info("注册服务: key={}, impl={}", key, clazz.getName());
                 }
             } catch (Exception e) {
@@ -1,23 +1,31 @@
 package com.lb.rpc.provider.common.server.base;
 
-import com.lb.rpc.codec.RpcDecoder;
-import com.lb.rpc.codec.RpcEncoder;
-import com.lb.rpc.provider.common.handler.RpcProviderHandler;
+import com.lb.rpc.annotation.RpcService;
+import com.lb.rpc.common.helper.TransportHelper;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.provider.common.executor.ProviderExecutors;
+import com.lb.rpc.provider.common.initializer.RpcProviderInitializer;
 import com.lb.rpc.provider.common.server.api.Server;
+import com.lb.rpc.provider.common.service.ProviderServiceRegistry;
+import com.lb.rpc.reflect.api.ReflectInvoker;
 import com.lb.rpc.registry.api.RegistryService;
 import com.lb.rpc.registry.api.config.RegistryConfig;
 import com.lb.rpc.registry.zookeeper.ZookeeperRegistryService;
 import com.lb.rpc.spi.loader.ExtensionLoader;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.epoll.EpollChannelOption;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -32,18 +40,33 @@ public class BaseServer implements Server {
     protected int port = 27110;
     // 存放接口实现实例的映射：key 为接口全限定名，value 为对应实现对象
     protected Map<String, Object> handlerMap = new HashMap<>();
+    // 服务上的 @RpcService 注解：key 与 handlerMap 相同，用于读取服务级别的配置
+    protected Map<String, RpcService> rpcServiceMap = new HashMap<>();
     // 用于反射调用的类型信息（例如 JDK 动态代理、CGLIB 等）
     private String reflectType;
     // 注册中心服务，用于将本服务信息注册到注册中心
     protected RegistryService registryService;
 
+    // 服务提供者的网络配置
+    protected ServerConfig serverConfig;
+
+    // 执行业务请求的线程池，服务启动时创建
+    protected volatile ProviderExecutors providerExecutors;
+    // 服务注册表：服务启动时由 handlerMap 创建，之后可以在运行时增减服务
+    protected volatile ProviderServiceRegistry serviceRegistry;
+
     public BaseServer(String serverAddress, String registryAddress, String registryType, String registryLoadBalanceType, String reflectType) {
+        this(serverAddress, registryAddress, registryType, registryLoadBalanceType, reflectType, new ServerConfig());
+    }
+
+    public BaseServer(String serverAddress, String registryAddress, String registryType, String registryLoadBalanceType, String reflectType, ServerConfig serverConfig) {
         if (!StringUtils.isEmpty(serverAddress)) {
             String[] serverArray = serverAddress.split(":");
             this.host = serverArray[0];
             this.port = Integer.parseInt(serverArray[1]);
         }
         this.reflectType = reflectType;
+        this.serverConfig = serverConfig == null ? new ServerConfig() : serverConfig;
         this.registryService = this.getRegistryService(registryAddress, registryType, registryLoadBalanceType);
     }
 
@@ -64,35 +87,71 @@ public class BaseServer implements Server {
 
     @Override
     public void startNettyServer() {
+        // 配置允许且系统支持时使用 epoll 传输，否则使用 NIO
+        boolean epoll = TransportHelper.useEpoll(serverConfig.getTransportType());
+        // epoll 传输通过 SO_REUSEPORT 绑定多个监听 Channel，每个监听 Channel 占用一个 boss 线程
+        int acceptors = epoll ? Math.max(serverConfig.getAcceptorThreads(), 1) : 1;
         // bossGroup 负责接收连接，workerGroup 负责处理 I/O
-        EventLoopGroup bossGroup = new NioEventLoopGroup();
-        EventLoopGroup workerGroup = new NioEventLoopGroup();
+        EventLoopGroup bossGroup = TransportHelper.newEventLoopGroup(epoll, acceptors);
+        EventLoopGroup workerGroup = TransportHelper.newEventLoopGroup(epoll, serverConfig.getIoThreads());
+        // 执行业务请求的线程池，所有连接共用
+        ProviderExecutors providerExecutors = new ProviderExecutors(serverConfig, rpcServiceMap);
+        this.providerExecutors = providerExecutors;
+        // 扫描完成后创建一次服务表，同时生成所有服务方法的调用器
+        ProviderServiceRegistry serviceRegistry = new ProviderServiceRegistry(ExtensionLoader.getExtension(ReflectInvoker.class, reflectType), handlerMap, rpcServiceMap);
+        this.serviceRegistry = serviceRegistry;
         try {
             ServerBootstrap bootstrap = new ServerBootstrap();
-            bootstrap.group(bossGroup, workerGroup).channel(NioServerSocketChannel.class)
-                    .childHandler(new ChannelInitializer<SocketChannel>() {
-                        @Override
-                        protected void initChannel(SocketChannel channel) throws Exception {
-                            channel.pipeline()
-                                    // 1. 解码器：将字节流解码成 RPC 请求对象
-                                    .addLast(new RpcDecoder())
-                                    // 2. 编码器：将 RPC 响应对象编码成字节流
-                                    .addLast(new RpcEncoder())
-                                    // 3. 服务端处理器：根据请求调用本地服务实现并返回结果
-                                    .addLast(new RpcProviderHandler(reflectType, handlerMap));
-                        }
-                    })
-                    .option(ChannelOption.SO_BACKLOG, 128)      // 设置 TCP 层面参数：等待队列大小
-                    .childOption(ChannelOption.SO_KEEPALIVE, true); // 设置子通道参数：保持连接活跃
-            ChannelFuture future = bootstrap.bind(host, port).sync();       // 绑定 host 和 port 并同步等待绑定完成
-            logger.info("Server started on {}:{}", host, port);
-            future.channel().closeFuture().sync();      // 阻塞当前线程，直到服务器 channel 关闭
+            bootstrap.group(bossGroup, workerGroup).channel(TransportHelper.getServerSocketChannelClass(epoll))
+                    // 连接的 pipeline 由 RpcProviderInitializer 统一组装
+                    .childHandler(new RpcProviderInitializer(serverConfig, serviceRegistry, providerExecutors))
+                    .option(ChannelOption.SO_BACKLOG, serverConfig.getBacklog())      // 设置 TCP 层面参数：等待队列大小
+                    .childOption(ChannelOption.SO_KEEPALIVE, serverConfig.isKeepAlive()) // 设置子通道参数：保持连接活跃
+                    .childOption(ChannelOption.TCP_NODELAY, serverConfig.isTcpNoDelay()) // 关闭 Nagle 算法，小包请求响应不等待合并
+                    // 写缓冲区水位：消费者读取变慢导致待发送的响应超过高水位时连接变为不可写，RpcProviderHandler 据此暂停读取新请求
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(serverConfig.getWriteBufferLowWaterMark(), serverConfig.getWriteBufferHighWaterMark()));
+            ByteBufAllocator allocator = RpcConstants.ALLOCATOR_UNPOOLED.equals(serverConfig.getAllocatorType()) ? UnpooledByteBufAllocator.DEFAULT : PooledByteBufAllocator.DEFAULT;
+            bootstrap.option(ChannelOption.ALLOCATOR, allocator).childOption(ChannelOption.ALLOCATOR, allocator);
+            if (serverConfig.getSendBufferSize() > 0) {
+                bootstrap.childOption(ChannelOption.SO_SNDBUF, serverConfig.getSendBufferSize());
+            }
+            if (serverConfig.getReceiveBufferSize() > 0) {
+                // 监听 Channel 上设置的接收缓冲区会被接收的连接继承，大于64K时需要在 listen 之前设置才能生效
+                bootstrap.option(ChannelOption.SO_RCVBUF, serverConfig.getReceiveBufferSize())
+                        .childOption(ChannelOption.SO_RCVBUF, serverConfig.getReceiveBufferSize());
+            }
+            if (epoll) {
+                bootstrap.option(EpollChannelOption.SO_REUSEPORT, acceptors > 1);
+            }
+            List<Channel> serverChannels = new ArrayList<>(acceptors);
+            for (int i = 0; i < acceptors; i++) {
+                serverChannels.add(bootstrap.bind(host, port).sync().channel());       // 绑定 host 和 port 并同步等待绑定完成
+            }
+            logger.info("Server started on {}:{}, transport: {}, acceptors: {}, executor: {}", host, port, epoll ? RpcConstants.TRANSPORT_EPOLL : RpcConstants.TRANSPORT_NIO, acceptors, serverConfig.getExecutorType());
+            for (Channel serverChannel : serverChannels) {
+                serverChannel.closeFuture().sync();      // 阻塞当前线程，直到服务器 channel 关闭
+            }
         } catch (Exception e) {
             logger.error("RPC Server start error", e);
         } finally {
             // 优雅关闭线程池，释放资源
             workerGroup.shutdownGracefully();
             bossGroup.shutdownGracefully();
+            providerExecutors.shutdown();
         }
     }
+
+    /**
+     * 获取执行业务请求的线程池，用于监控隔离线程池和过载控制的拒绝次数，服务启动前返回null
+     */
+    public ProviderExecutors getProviderExecutors() {
+        return providerExecutors;
+    }
+
+    /**
+     * 获取服务注册表，用于在运行时增减服务，服务启动前返回null
+     */
+    public ProviderServiceRegistry getServiceRegistry() {
+        return serviceRegistry;
+    }
 }
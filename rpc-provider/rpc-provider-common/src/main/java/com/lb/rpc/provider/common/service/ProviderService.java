@@ -0,0 +1,81 @@
+package com.lb.rpc.provider.common.service;
+
+import com.lb.rpc.annotation.RpcService;
+
+/**
+ * 服务提供者注册的一个服务，服务key在注册时拆分为类名、版本号和分组，请求按这三部分查找服务时不需要拼接服务key
+ */
+public class ProviderService {
+
+    private final String serviceKey;
+
+    private final String className;
+
+    private final String version;
+
+    private final String group;
+
+    private final Object serviceBean;
+
+    private final Class<?> serviceClass;
+
+    /**
+     * 服务上的@RpcService注解，不是通过注解注册的服务为null
+     */
+    private final RpcService rpcService;
+
+    /**
+     * @param serviceKey  RpcServiceHelper.buildServiceKey拼接的服务key
+     * @param serviceBean 服务实现对象
+     * @param rpcService  服务上的@RpcService注解，可以为null
+     */
+    public ProviderService(String serviceKey, Object serviceBean, RpcService rpcService) {
+        int groupIndex = serviceKey.lastIndexOf('#');
+        int versionIndex = groupIndex > 0 ? serviceKey.lastIndexOf('#', groupIndex - 1) : -1;
+        if (versionIndex < 0) {
+            throw new IllegalArgumentException("invalid service key " + serviceKey + ", expected serviceName#version#group");
+        }
+        this.serviceKey = serviceKey;
+        this.className = serviceKey.substring(0, versionIndex);
+        this.version = serviceKey.substring(versionIndex + 1, groupIndex);
+        this.group = serviceKey.substring(groupIndex + 1);
+        this.serviceBean = serviceBean;
+        this.serviceClass = serviceBean.getClass();
+        this.rpcService = rpcService;
+    }
+
+    /**
+     * 版本号和分组是否与请求中的相同，请求中的null与拼接服务key时一样按"null"比较
+     */
+    boolean matches(String version, String group) {
+        return this.version.equals(String.valueOf(version)) && this.group.equals(String.valueOf(group));
+    }
+
+    public String getServiceKey() {
+        return serviceKey;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public Object getServiceBean() {
+        return serviceBean;
+    }
+
+    public Class<?> getServiceClass() {
+        return serviceClass;
+    }
+
+    public RpcService getRpcService() {
+        return rpcService;
+    }
+}
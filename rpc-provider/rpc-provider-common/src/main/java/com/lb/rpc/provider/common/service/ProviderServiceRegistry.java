@@ -0,0 +1,95 @@
+package com.lb.rpc.provider.common.service;
+
+import com.lb.rpc.annotation.RpcService;
+import com.lb.rpc.reflect.api.ReflectInvoker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 服务提供者的服务注册表，持有当前的服务表
+ * 扫描服务后创建一次服务表，请求只读取volatile引用，不加锁；运行时增减服务时复制当前服务表并创建新的服务表后整体替换，
+ * 正在处理的请求继续使用旧的服务表。新增的服务只加入本地服务表，不会注册到注册中心
+ */
+public class ProviderServiceRegistry {
+
+    private final Logger logger = LoggerFactory.getLogger(ProviderServiceRegistry.class);
+
+    private final ReflectInvoker reflectInvoker;
+
+    private volatile ProviderServiceTable serviceTable;
+
+    /**
+     * @param reflectInvoker 反射调用器
+     * @param handlerMap     扫描得到的服务，key为服务key
+     * @param rpcServiceMap  服务上的@RpcService注解，key与handlerMap相同
+     */
+    public ProviderServiceRegistry(ReflectInvoker reflectInvoker, Map<String, Object> handlerMap, Map<String, RpcService> rpcServiceMap) {
+        this.reflectInvoker = reflectInvoker;
+        Map<String, ProviderService> services = new HashMap<>();
+        handlerMap.forEach((serviceKey, serviceBean) -> services.put(serviceKey, this.createService(serviceKey, serviceBean, rpcServiceMap.get(serviceKey))));
+        this.serviceTable = new ProviderServiceTable(services, reflectInvoker, null);
+        logger.info("service table published, services: {}, methods: {}", services.size(), serviceTable.getMethodTable().size());
+    }
+
+    /**
+     * 获取当前的服务表，一次请求只应读取一次，保证服务和方法来自同一个服务表
+     */
+    public ProviderServiceTable getServiceTable() {
+        return serviceTable;
+    }
+
+    public ReflectInvoker getReflectInvoker() {
+        return reflectInvoker;
+    }
+
+    /**
+     * 新增或替换服务，已有方法的方法id保持不变
+     *
+     * @param serviceKey  RpcServiceHelper.buildServiceKey拼接的服务key
+     * @param serviceBean 服务实现对象
+     * @param rpcService  服务上的@RpcService注解，可以为null
+     */
+    public synchronized void addService(String serviceKey, Object serviceBean, RpcService rpcService) {
+        Map<String, ProviderService> services = new HashMap<>(serviceTable.getServices());
+        services.put(serviceKey, this.createService(serviceKey, serviceBean, rpcService));
+        this.publish(services);
+        logger.info("service {} added", serviceKey);
+    }
+
+    /**
+     * 删除服务，之后按方法id调用该服务的请求返回方法不存在
+     *
+     * @param serviceKey 服务key
+     * @return 服务存在并被删除时返回true
+     */
+    public synchronized boolean removeService(String serviceKey) {
+        if (!serviceTable.getServices().containsKey(serviceKey)) {
+            return false;
+        }
+        Map<String, ProviderService> services = new HashMap<>(serviceTable.getServices());
+        services.remove(serviceKey);
+        this.publish(services);
+        logger.info("service {} removed", serviceKey);
+        return true;
+    }
+
+    private void publish(Map<String, ProviderService> services) {
+        this.serviceTable = new ProviderServiceTable(services, reflectInvoker, serviceTable);
+    }
+
+    /**
+     * 创建服务并预先生成服务所有方法的调用器
+     */
+    private ProviderService createService(String serviceKey, Object serviceBean, RpcService rpcService) {
+        ProviderService service = new ProviderService(serviceKey, serviceBean, rpcService);
+        try {
+            reflectInvoker.prepare(service.getServiceClass());
+        } catch (Throwable e) {
+            logger.warn("prepare reflect invoker of {} failed", service.getServiceClass().getName(), e);
+        }
+        return service;
+    }
+}
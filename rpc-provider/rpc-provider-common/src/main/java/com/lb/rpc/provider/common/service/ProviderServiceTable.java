@@ -0,0 +1,79 @@
+package com.lb.rpc.provider.common.service;
+
+import com.lb.rpc.provider.common.method.ProviderMethodTable;
+import com.lb.rpc.reflect.api.ReflectInvoker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 服务提供者的服务表，创建后不再修改，可以在多个I/O线程和业务线程之间无锁共享
+ * 按类名查找同名服务的数组后比较版本号和分组，请求不需要拼接服务key；按方法id查找时直接使用方法表
+ */
+public class ProviderServiceTable {
+
+    private static final ProviderService[] EMPTY_SERVICES = new ProviderService[0];
+
+    /**
+     * key为服务key
+     */
+    private final Map<String, ProviderService> services;
+
+    /**
+     * key为服务类名，value为该类名的所有版本和分组的服务，通常只有一个
+     */
+    private final Map<String, ProviderService[]> servicesByClassName;
+
+    private final ProviderMethodTable methodTable;
+
+    /**
+     * @param services       所有服务，key为服务key
+     * @param reflectInvoker 获取方法调用器的反射调用器
+     * @param previous       上一个服务表，新服务表中已有方法的id保持不变，为null时重新编号
+     */
+    public ProviderServiceTable(Map<String, ProviderService> services, ReflectInvoker reflectInvoker, ProviderServiceTable previous) {
+        this.services = Collections.unmodifiableMap(new HashMap<>(services));
+        Map<String, ProviderService[]> servicesByClassName = new HashMap<>();
+        for (ProviderService service : services.values()) {
+            ProviderService[] existing = servicesByClassName.getOrDefault(service.getClassName(), EMPTY_SERVICES);
+            ProviderService[] updated = new ProviderService[existing.length + 1];
+            System.arraycopy(existing, 0, updated, 0, existing.length);
+            updated[existing.length] = service;
+            servicesByClassName.put(service.getClassName(), updated);
+        }
+        this.servicesByClassName = servicesByClassName;
+        this.methodTable = new ProviderMethodTable(services.values(), reflectInvoker, previous == null ? null : previous.methodTable);
+    }
+
+    /**
+     * 按请求中的类名、版本号和分组查找服务，不存在时返回null
+     */
+    public ProviderService getService(String className, String version, String group) {
+        ProviderService[] candidates = servicesByClassName.get(className);
+        if (candidates == null) {
+            return null;
+        }
+        for (ProviderService candidate : candidates) {
+            if (candidate.matches(version, group)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 按服务key查找服务，不存在时返回null
+     */
+    public ProviderService getService(String serviceKey) {
+        return services.get(serviceKey);
+    }
+
+    public Map<String, ProviderService> getServices() {
+        return services;
+    }
+
+    public ProviderMethodTable getMethodTable() {
+        return methodTable;
+    }
+}
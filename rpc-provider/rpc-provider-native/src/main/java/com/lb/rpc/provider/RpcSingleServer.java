@@ -1,5 +1,6 @@
 package com.lb.rpc.provider;
 
+import com.lb.rpc.provider.common.config.ServerConfig;
 import com.lb.rpc.provider.common.scanner.RpcServiceScanner;
 import com.lb.rpc.provider.common.server.base.BaseServer;
 import org.slf4j.Logger;
@@ -25,15 +26,25 @@ public class RpcSingleServer extends BaseServer {
      * @param reflectType             反射调用类型（JDK/CGLIB）
      */
     public RpcSingleServer(String serverAddress, String registryAddress, String registryType, String registryLoadBalanceType, String scanPackage, String reflectType) {
+        this(serverAddress, registryAddress, registryType, registryLoadBalanceType, scanPackage, reflectType, new ServerConfig());
+    }
+
+    /**
+     * 构造方法，额外指定服务提供者的网络配置
+     *
+     * @param serverConfig 服务提供者的网络配置，例如是否开启刷新合并
+     */
+    public RpcSingleServer(String serverAddress, String registryAddress, String registryType, String registryLoadBalanceType, String scanPackage, String reflectType, ServerConfig serverConfig) {
         // 1. 调用 BaseServer 构造，解析地址并初始化 registryService
-        super(serverAddress, registryAddress, registryType, registryLoadBalanceType, reflectType);
+        super(serverAddress, registryAddress, registryType, registryLoadBalanceType, reflectType, serverConfig);
         try {
             // 2. 扫描服务实现，返回 key->实现实例映射，并注册到注册中心
             this.handlerMap = RpcServiceScanner.doScannerWithRpcServiceAnnotationFilterAndRegistryService(
                     this.host,
                     this.port,
                     scanPackage,
-                    registryService);
+                    registryService,
+                    this.rpcServiceMap);
         } catch (Exception e) {
             logger.error("RPC Server init error", e);
         }
@@ -17,6 +17,8 @@ public abstract class BaseProxyFactory<T> implements ProxyFactory {
                 proxyConfig.getConsumer(),
                 proxyConfig.getSerializationType(),
                 proxyConfig.getAsync(),
-                proxyConfig.getOneway());
+                proxyConfig.getOneway(),
+                proxyConfig.getCompressType(),
+                proxyConfig.getCompressThreshold());
     }
 }
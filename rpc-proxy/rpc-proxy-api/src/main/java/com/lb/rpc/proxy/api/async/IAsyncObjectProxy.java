@@ -2,6 +2,8 @@ package com.lb.rpc.proxy.api.async;
 
 import com.lb.rpc.proxy.api.future.RPCFuture;
 
+import java.util.concurrent.Executor;
+
 public interface IAsyncObjectProxy {
 
     /**
@@ -12,4 +14,14 @@ public interface IAsyncObjectProxy {
      * @return 封装好的RPCFuture对象
      */
     RPCFuture call(String funcName, Object... args);
+
+    /**
+     * 异步代理对象调用方法，RPCFuture的回调在指定的线程池中执行
+     *
+     * @param funcName         方法名称
+     * @param callbackExecutor 执行回调的线程池，RPCFuture.DIRECT_CALLBACK_EXECUTOR表示在收到响应的I/O线程中直接执行
+     * @param args             方法参数
+     * @return 封装好的RPCFuture对象
+     */
+    RPCFuture call(String funcName, Executor callbackExecutor, Object... args);
 }
@@ -1,5 +1,6 @@
 package com.lb.rpc.proxy.api.config;
 
+import com.lb.rpc.constants.RpcConstants;
 import com.lb.rpc.proxy.api.consumer.Consumer;
 import com.lb.rpc.registry.api.RegistryService;
 
@@ -48,6 +49,16 @@ public class ProxyConfig<T> implements Serializable {
      */
     private boolean oneway;
 
+    /**
+     * 压缩类型
+     */
+    private String compressType = RpcConstants.COMPRESS_NONE;
+
+    /**
+     * 压缩阈值
+     */
+    private int compressThreshold = RpcConstants.COMPRESS_THRESHOLD_DEFAULT;
+
     public ProxyConfig() {
     }
 
@@ -63,6 +74,12 @@ public class ProxyConfig<T> implements Serializable {
         this.registryService = registryService;
     }
 
+    public ProxyConfig(Class<T> clazz, String serviceVersion, String serviceGroup, String serializationType, long timeout, RegistryService registryService, Consumer consumer, boolean async, boolean oneway, String compressType, int compressThreshold) {
+        this(clazz, serviceVersion, serviceGroup, serializationType, timeout, registryService, consumer, async, oneway);
+        this.compressType = compressType;
+        this.compressThreshold = compressThreshold;
+    }
+
     public Class<T> getClazz() {
         return clazz;
     }
@@ -134,4 +151,20 @@ public class ProxyConfig<T> implements Serializable {
     public void setRegistryService(RegistryService registryService) {
         this.registryService = registryService;
     }
+
+    public String getCompressType() {
+        return compressType;
+    }
+
+    public void setCompressType(String compressType) {
+        this.compressType = compressType;
+    }
+
+    public int getCompressThreshold() {
+        return compressThreshold;
+    }
+
+    public void setCompressThreshold(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
 }
@@ -13,5 +13,12 @@ public interface Consumer {
     /**
      * 消费者发送 request 请求
      */
-    RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, RegistryService registryService) throws Exception;
+    default RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, RegistryService registryService) throws Exception {
+        return this.sendRequest(protocol, RpcCallOptions.DEFAULT, registryService);
+    }
+
+    /**
+     * 消费者发送 request 请求，callOptions为调用在本地使用的参数，不参与编码
+     */
+    RPCFuture sendRequest(RpcProtocol<RpcRequest> protocol, RpcCallOptions callOptions, RegistryService registryService) throws Exception;
 }
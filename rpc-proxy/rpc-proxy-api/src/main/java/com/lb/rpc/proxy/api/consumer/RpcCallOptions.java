@@ -0,0 +1,48 @@
+package com.lb.rpc.proxy.api.consumer;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 一次调用在服务消费者本地使用的参数，由代理对象创建，与请求协议对象一起交给Consumer发送，不参与编码
+ * 需要响应的请求保存在RPCFuture中，过载转发和方法表过期重发时沿用
+ */
+public class RpcCallOptions {
+
+    /**
+     * 不指定任何参数，全部使用消费者的默认配置
+     */
+    public static final RpcCallOptions DEFAULT = new RpcCallOptions(null, 0, null);
+
+    /**
+     * 请求方法的签名key，用于在连接的方法表中查找方法id，为null时不使用方法id发送
+     */
+    private final String methodKey;
+
+    /**
+     * 请求的超时时间，单位毫秒，小于等于0时使用消费者的默认超时时间
+     */
+    private final long timeout;
+
+    /**
+     * 执行RPCFuture回调的线程池，为null时使用消费者的默认配置
+     */
+    private final Executor callbackExecutor;
+
+    public RpcCallOptions(String methodKey, long timeout, Executor callbackExecutor) {
+        this.methodKey = methodKey;
+        this.timeout = timeout;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public String getMethodKey() {
+        return methodKey;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+}
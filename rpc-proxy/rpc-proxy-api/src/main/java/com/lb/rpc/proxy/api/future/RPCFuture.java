@@ -1,155 +1,142 @@
 package com.lb.rpc.proxy.api.future;
 
+import com.lb.rpc.common.exception.RpcException;
 import com.lb.rpc.common.threadpool.ClientThreadPool;
 import com.lb.rpc.protocol.RpcProtocol;
 import com.lb.rpc.protocol.request.RpcRequest;
 import com.lb.rpc.protocol.response.RpcResponse;
 import com.lb.rpc.proxy.api.callback.AsyncRPCCallback;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.lb.rpc.proxy.api.consumer.RpcCallOptions;
+import io.netty.util.Timeout;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.AbstractQueuedSynchronizer;
-import java.util.concurrent.locks.ReentrantLock;
-
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * RPC调用的结果
+ * 等待、回调和取消都由CompletableFuture实现，正常响应以结果完成，错误响应以RpcException异常完成，
+ * 调用方可以直接使用thenApply、whenComplete、orTimeout等方法组合调用，不需要阻塞线程等待
+ */
 public class RPCFuture extends CompletableFuture<Object> {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(RPCFuture.class);
-
-    private Sync sync;                              // 自定义同步器，控制线程等待和唤醒
-    private RpcProtocol<RpcRequest> requestRpcProtocol;   // 请求协议对象
-    private RpcProtocol<RpcResponse> responseRpcProtocol; // 响应协议对象
-    private long startTime;                         // 请求开始时间
-    private long responseTimeThreshold = 5000;      // 响应时间阈值（5秒）
+    /**
+     * 在结束RPCFuture的线程中直接执行回调，收到响应时为Netty的I/O线程，只适合不阻塞的简单回调
+     */
+    public static final Executor DIRECT_CALLBACK_EXECUTOR = Runnable::run;
 
-    private List<AsyncRPCCallback> pendingCallbacks = new ArrayList<AsyncRPCCallback>();
-    private ReentrantLock lock = new ReentrantLock();
+    private final RpcProtocol<RpcRequest> requestRpcProtocol;   // 请求协议对象
+    private final RpcCallOptions callOptions;                   // 调用在本地使用的参数
+    private final Executor callbackExecutor;                    // 执行回调的线程池
+    private int failovers;                                      // 服务提供者过载时已转发到其他实例的次数
+    private volatile Timeout timeout;                           // 请求的超时检查任务，收到响应后取消
 
     public RPCFuture(RpcProtocol<RpcRequest> requestRpcProtocol) {
-        this.sync = new Sync();
+        this(requestRpcProtocol, RpcCallOptions.DEFAULT, ClientThreadPool.getExecutor());
+    }
+
+    /**
+     * @param requestRpcProtocol      请求协议对象
+     * @param callOptions             调用在本地使用的参数
+     * @param defaultCallbackExecutor 调用没有指定回调线程池时执行回调的线程池
+     */
+    public RPCFuture(RpcProtocol<RpcRequest> requestRpcProtocol, RpcCallOptions callOptions, Executor defaultCallbackExecutor) {
         this.requestRpcProtocol = requestRpcProtocol;
-        this.startTime = System.currentTimeMillis();     // 记录请求开始时间
+        this.callOptions = callOptions == null ? RpcCallOptions.DEFAULT : callOptions;
+        this.callbackExecutor = this.callOptions.getCallbackExecutor() != null
+                ? this.callOptions.getCallbackExecutor() : defaultCallbackExecutor;
     }
 
-    @Override
-    public boolean isDone() {
-        return sync.isDone();
+    public RpcProtocol<RpcRequest> getRequestRpcProtocol() {
+        return requestRpcProtocol;
     }
 
-    @Override
-    public Object get() throws InterruptedException, ExecutionException {
-        sync.acquire(-1);   // 调用sync.acquire(-1)阻塞当前线程
-        if (this.responseRpcProtocol != null) {
-            return this.responseRpcProtocol.getBody().getResult();
-        }
-        return null;
+    public RpcCallOptions getCallOptions() {
+        return callOptions;
     }
 
-    @Override
-    public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-        boolean success = sync.tryAcquireNanos(-1, unit.toNanos(timeout));
-        if (success) {
-            // 在超时时间内获得响应
-            if (this.responseRpcProtocol != null) {
-                return this.responseRpcProtocol.getBody().getResult();
-            } else {
-                return null;
-            }
-        } else {
-            // 超时，抛出异常
-            throw new RuntimeException("Timeout exception. Request id: " + this.requestRpcProtocol.getHeader().getRequestId()
-                    + ". Request class name: " + this.requestRpcProtocol.getBody().getClassName()
-                    + ". Request method: " + this.requestRpcProtocol.getBody().getMethodName());
-        }
+    public int getFailovers() {
+        return failovers;
     }
 
-    @Override
-    public boolean isCancelled() {
-        throw new UnsupportedOperationException();
+    /**
+     * 记录一次转发，请求同一时刻只在一个连接上等待响应，不需要同步
+     */
+    public int incrementFailovers() {
+        return ++failovers;
     }
 
-    @Override
-    public boolean cancel(boolean mayInterruptIfRunning) {
-        throw new UnsupportedOperationException();
+    public Timeout getTimeout() {
+        return timeout;
     }
 
-    public void done(RpcProtocol<RpcResponse> responseRpcProtocol) {
-        this.responseRpcProtocol = responseRpcProtocol;
-        sync.release(1);  // 释放锁，唤醒等待的线程
-        invokeCallbacks();
-        // 性能监控：检查响应时间
-        long responseTime = System.currentTimeMillis() - startTime;
-        if (responseTime > this.responseTimeThreshold) {
-            LOGGER.warn("Service response time is too slow. Request id = " +
-                    responseRpcProtocol.getHeader().getRequestId() +
-                    ". Response Time = " + responseTime + "ms");
-        }
+    public void setTimeout(Timeout timeout) {
+        this.timeout = timeout;
     }
 
-    private void invokeCallbacks() {
-        lock.lock();
+    /**
+     * 以响应结束RPCFuture，已经取消或超时的RPCFuture不受影响
+     * 该方法通常在Netty的I/O线程中调用，读取响应体会触发延迟反序列化，因此读取响应体并结束RPCFuture的操作交给回调线程池执行，
+     * 只有回调线程池为DIRECT_CALLBACK_EXECUTOR时在当前线程中直接执行
+     *
+     * @return 响应体已交给回调线程池读取时返回true；回调线程池拒绝时不读取响应体，以异常结束RPCFuture并返回false，
+     * 由调用方释放延迟反序列化的响应体
+     */
+    public boolean done(RpcProtocol<RpcResponse> responseRpcProtocol) {
+        Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        if (callbackExecutor == DIRECT_CALLBACK_EXECUTOR) {
+            this.completeWithResponse(responseRpcProtocol);
+            return true;
+        }
         try {
-            for (final AsyncRPCCallback callback : pendingCallbacks) {
-                runCallback(callback);
-            }
-        } finally {
-            lock.unlock();
+            callbackExecutor.execute(() -> this.completeWithResponse(responseRpcProtocol));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // 回调线程池已满，不在当前线程中反序列化响应体
+            this.completeExceptionally(new RpcException("callback executor rejected response. Request id: "
+                    + responseRpcProtocol.getHeader().getRequestId(), e));
+            return false;
         }
     }
 
-    public RPCFuture addCallback(AsyncRPCCallback callback) {
-        lock.lock();
+    private void completeWithResponse(RpcProtocol<RpcResponse> responseRpcProtocol) {
+        RpcResponse response;
         try {
-            if (isDone()) {
-                runCallback(callback);
-            } else {
-                this.pendingCallbacks.add(callback);
-            }
-        } finally {
-            lock.unlock();
+            response = responseRpcProtocol.getBody();
+        } catch (Throwable e) {
+            this.completeExceptionally(new RpcException("Response decode error. Request id: "
+                    + responseRpcProtocol.getHeader().getRequestId(), e));
+            return;
+        }
+        if (response.isError()) {
+            this.completeExceptionally(new RpcException(response.getError()));
+        } else {
+            this.complete(response.getResult());
         }
-        return this;
     }
 
-    private void runCallback(final AsyncRPCCallback callback) {
-        final RpcResponse res = this.responseRpcProtocol.getBody();
-        ClientThreadPool.submit(() -> {
-            if (!res.isError()) {
-                callback.onSuccess(res.getResult());
-            } else {
-                callback.onException(new RuntimeException("Response error", new Throwable(res.getError())));
-            }
-        });
+    /**
+     * 添加回调，回调在请求指定的线程池中执行，没有指定时按消费者的配置执行，默认为客户端线程池
+     */
+    public RPCFuture addCallback(AsyncRPCCallback callback) {
+        return this.addCallback(callback, callbackExecutor);
     }
 
-    static class Sync extends AbstractQueuedSynchronizer {
-        private final int done = 1;      // 已完成状态
-        private final int pending = 0;   // 等待状态
-
-        // 尝试获取锁，只有状态为done时才能获取成功
-        @Override
-        protected boolean tryAcquire(int arg) {
-            return getState() == done;
-        }
-
-        // 释放锁，将状态从pending改为done
-        @Override
-        protected boolean tryRelease(int arg) {
-            // 原子性地修改状态，保证线程安全
-            if (compareAndSetState(pending, done)) {
-                return true;
+    /**
+     * 添加回调，回调在指定的线程池中执行
+     */
+    public RPCFuture addCallback(AsyncRPCCallback callback, Executor executor) {
+        this.whenComplete((result, cause) -> executor.execute(() -> {
+            if (cause == null) {
+                callback.onSuccess(result);
+            } else {
+                callback.onException(cause instanceof Exception ? (Exception) cause : new RpcException("Response error", cause));
             }
-            return false;
-        }
-
-        public boolean isDone() {
-            return getState() == done;
-        }
+        }));
+        return this;
     }
 
 }
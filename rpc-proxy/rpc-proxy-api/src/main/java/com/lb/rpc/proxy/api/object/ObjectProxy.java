@@ -1,10 +1,14 @@
 package com.lb.rpc.proxy.api.object;
 
+import com.lb.rpc.common.exception.RpcException;
+import com.lb.rpc.common.helper.RpcServiceHelper;
+import com.lb.rpc.constants.RpcConstants;
 import com.lb.rpc.protocol.RpcProtocol;
 import com.lb.rpc.protocol.header.RpcHeaderFactory;
 import com.lb.rpc.protocol.request.RpcRequest;
 import com.lb.rpc.proxy.api.async.IAsyncObjectProxy;
 import com.lb.rpc.proxy.api.consumer.Consumer;
+import com.lb.rpc.proxy.api.consumer.RpcCallOptions;
 import com.lb.rpc.proxy.api.future.RPCFuture;
 import com.lb.rpc.registry.api.RegistryService;
 import org.slf4j.Logger;
@@ -12,7 +16,12 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class ObjectProxy<T> implements IAsyncObjectProxy, InvocationHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(ObjectProxy.class);
@@ -57,6 +66,21 @@ public class ObjectProxy<T> implements IAsyncObjectProxy, InvocationHandler {
      */
     private boolean oneway;
 
+    /**
+     * 压缩类型
+     */
+    private String compressType = RpcConstants.COMPRESS_NONE;
+
+    /**
+     * 压缩阈值
+     */
+    private int compressThreshold = RpcConstants.COMPRESS_THRESHOLD_DEFAULT;
+
+    /**
+     * 方法签名key的缓存，消费者在连接的方法表中按签名key查找方法id，不需要每次调用都拼接
+     */
+    private final Map<Method, String> methodKeys = new ConcurrentHashMap<>();
+
     public ObjectProxy(Class<T> clazz) {
         this.clazz = clazz;
     }
@@ -73,6 +97,12 @@ public class ObjectProxy<T> implements IAsyncObjectProxy, InvocationHandler {
         this.oneway = oneway;
     }
 
+    public ObjectProxy(Class<T> clazz, String serviceVersion, String serviceGroup, long timeout, RegistryService registryService, Consumer consumer, String serializationType, boolean async, boolean oneway, String compressType, int compressThreshold) {
+        this(clazz, serviceVersion, serviceGroup, timeout, registryService, consumer, serializationType, async, oneway);
+        this.compressType = compressType;
+        this.compressThreshold = compressThreshold;
+    }
+
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         // 1. 处理Object类方法
@@ -93,7 +123,7 @@ public class ObjectProxy<T> implements IAsyncObjectProxy, InvocationHandler {
         // 2. 构建RPC请求
         RpcProtocol<RpcRequest> requestRpcProtocol = new RpcProtocol<>();
         // 设置协议头和请求体..
-        requestRpcProtocol.setHeader(RpcHeaderFactory.getRequestHeader(serializationType));
+        requestRpcProtocol.setHeader(RpcHeaderFactory.getRequestHeader(serializationType, compressType, compressThreshold));
 
         RpcRequest request = new RpcRequest();
         request.setVersion(this.serviceVersion);
@@ -105,6 +135,7 @@ public class ObjectProxy<T> implements IAsyncObjectProxy, InvocationHandler {
         request.setAsync(async);
         request.setOneway(oneway);
         requestRpcProtocol.setBody(request);
+        RpcCallOptions callOptions = new RpcCallOptions(methodKeys.computeIfAbsent(method, this::buildMethodKey), timeout, null);
 
         LOGGER.debug(method.getDeclaringClass().getName());
         LOGGER.debug(method.getName());
@@ -122,19 +153,40 @@ public class ObjectProxy<T> implements IAsyncObjectProxy, InvocationHandler {
         }
 
         // 3. 发送请求并获取Future
-        RPCFuture rpcFuture = this.consumer.sendRequest(requestRpcProtocol, registryService);
+        RPCFuture rpcFuture = this.consumer.sendRequest(requestRpcProtocol, callOptions, registryService);
 
         // 4. 根据超时设置返回结果
-        return rpcFuture == null ? null :
-                timeout > 0 ? rpcFuture.get(timeout, TimeUnit.MILLISECONDS) : rpcFuture.get();
+        if (rpcFuture == null) {
+            return null;
+        }
+        try {
+            return timeout > 0 ? rpcFuture.get(timeout, TimeUnit.MILLISECONDS) : rpcFuture.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            rpcFuture.cancel(false);
+            throw new RpcException("Timeout exception. Request id: " + requestRpcProtocol.getHeader().getRequestId()
+                    + ". Request class name: " + request.getClassName()
+                    + ". Request method: " + request.getMethodName());
+        }
+    }
+
+    private String buildMethodKey(Method method) {
+        String serviceKey = RpcServiceHelper.buildServiceKey(method.getDeclaringClass().getName(), serviceVersion, serviceGroup);
+        return RpcServiceHelper.buildMethodKey(serviceKey, method.getName(), method.getParameterTypes());
     }
 
     @Override
     public RPCFuture call(String funcName, Object... args) {
+        return this.call(funcName, (Executor) null, args);
+    }
+
+    @Override
+    public RPCFuture call(String funcName, Executor callbackExecutor, Object... args) {
         RpcProtocol<RpcRequest> request = createRequest(this.clazz.getName(), funcName, args);
         RPCFuture rpcFuture = null;
         try {
-            rpcFuture = this.consumer.sendRequest(request, registryService);
+            rpcFuture = this.consumer.sendRequest(request, new RpcCallOptions(null, timeout, callbackExecutor), registryService);
         } catch (Exception e) {
             LOGGER.error("async all throws exception:{}", e);
         }
@@ -145,7 +197,7 @@ public class ObjectProxy<T> implements IAsyncObjectProxy, InvocationHandler {
 
         RpcProtocol<RpcRequest> requestRpcProtocol = new RpcProtocol<RpcRequest>();
 
-        requestRpcProtocol.setHeader(RpcHeaderFactory.getRequestHeader(serializationType));
+        requestRpcProtocol.setHeader(RpcHeaderFactory.getRequestHeader(serializationType, compressType, compressThreshold));
 
         RpcRequest request = new RpcRequest();
         request.setClassName(className);
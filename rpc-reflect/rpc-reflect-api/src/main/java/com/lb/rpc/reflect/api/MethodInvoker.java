@@ -0,0 +1,18 @@
+package com.lb.rpc.reflect.api;
+
+/**
+ * 单个服务方法的调用器，由ReflectInvoker的实现在第一次调用或服务注册时生成并缓存
+ */
+@FunctionalInterface
+public interface MethodInvoker {
+
+    /**
+     * 调用服务方法
+     *
+     * @param serviceBean 方法所在的对象实例
+     * @param parameters  方法的参数数组，无参方法可以为null
+     * @return 方法调用的结果，void方法返回null
+     * @throws Throwable 方法本身抛出的异常
+     */
+    Object invoke(Object serviceBean, Object[] parameters) throws Throwable;
+}
@@ -25,4 +25,26 @@ public interface ReflectInvoker {
      * @throws Throwable 抛出的异常
      */
     Object invokeMethod(Object serviceBean, Class<?> serviceClass, String methodName, Class<?>[] parameterTypes, Object[] parameters) throws Throwable;
+
+    /**
+     * 在服务注册时预先生成服务所有公有方法的调用器，避免第一次调用时生成调用器的开销
+     *
+     * @param serviceClass 服务实现类的Class对象
+     * @throws Throwable 生成调用器时抛出的异常
+     */
+    default void prepare(Class<?> serviceClass) throws Throwable {
+    }
+
+    /**
+     * 获取单个方法的调用器，服务提供者在启动时为方法表中的方法获取并保存，按方法id调用时不再按方法名和参数类型查找
+     *
+     * @param serviceClass   服务实现类的Class对象
+     * @param methodName     方法的名称
+     * @param parameterTypes 方法的参数类型数组
+     * @return 方法调用器，默认每次调用都委托给invokeMethod
+     * @throws Throwable 生成调用器时抛出的异常
+     */
+    default MethodInvoker getMethodInvoker(Class<?> serviceClass, String methodName, Class<?>[] parameterTypes) throws Throwable {
+        return (serviceBean, parameters) -> this.invokeMethod(serviceBean, serviceClass, methodName, parameterTypes, parameters);
+    }
 }
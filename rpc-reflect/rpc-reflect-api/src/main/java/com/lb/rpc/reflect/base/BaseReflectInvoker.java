@@ -0,0 +1,133 @@
+package com.lb.rpc.reflect.base;
+
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.api.ReflectInvoker;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带缓存的反射调用器
+ * 每个服务方法（服务类 + 方法名 + 参数类型）的调用器只生成一次，之后的调用只需要两次Map查找和一次直接调用，
+ * 子类只负责为单个方法生成调用器
+ */
+public abstract class BaseReflectInvoker implements ReflectInvoker {
+
+    private static final Class<?>[] EMPTY_PARAMETER_TYPES = new Class<?>[0];
+
+    /**
+     * key为服务类，value为方法名到同名方法调用器的映射，同名的重载方法按参数类型区分
+     */
+    private final Map<Class<?>, Map<String, CachedMethodInvoker[]>> methodInvokers = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invokeMethod(Object serviceBean, Class<?> serviceClass, String methodName, Class<?>[] parameterTypes, Object[] parameters) throws Throwable {
+        return this.getMethodInvoker(serviceClass, methodName, parameterTypes).invoke(serviceBean, parameters);
+    }
+
+    @Override
+    public void prepare(Class<?> serviceClass) throws Throwable {
+        for (Method method : serviceClass.getMethods()) {
+            if (method.getDeclaringClass() != Object.class) {
+                this.getMethodInvoker(serviceClass, method.getName(), method.getParameterTypes());
+            }
+        }
+    }
+
+    /**
+     * 获取方法的调用器，不存在时生成并缓存
+     */
+    @Override
+    public MethodInvoker getMethodInvoker(Class<?> serviceClass, String methodName, Class<?>[] parameterTypes) throws Throwable {
+        Map<String, CachedMethodInvoker[]> invokers = methodInvokers.get(serviceClass);
+        if (invokers != null) {
+            CachedMethodInvoker[] overloads = invokers.get(methodName);
+            if (overloads != null) {
+                for (CachedMethodInvoker overload : overloads) {
+                    if (overload.matches(parameterTypes)) {
+                        return overload.invoker;
+                    }
+                }
+            }
+        }
+        return this.createAndCache(serviceClass, methodName, parameterTypes);
+    }
+
+    private synchronized MethodInvoker createAndCache(Class<?> serviceClass, String methodName, Class<?>[] parameterTypes) throws Throwable {
+        Map<String, CachedMethodInvoker[]> invokers = methodInvokers.computeIfAbsent(serviceClass, key -> new ConcurrentHashMap<>());
+        CachedMethodInvoker[] overloads = invokers.get(methodName);
+        if (overloads != null) {
+            for (CachedMethodInvoker overload : overloads) {
+                if (overload.matches(parameterTypes)) {
+                    return overload.invoker;
+                }
+            }
+        }
+        Method method = serviceClass.getMethod(methodName, parameterTypes);
+        CachedMethodInvoker created = new CachedMethodInvoker(method.getParameterTypes(), this.createMethodInvoker(serviceClass, method));
+        CachedMethodInvoker[] updated;
+        if (overloads == null) {
+            updated = new CachedMethodInvoker[]{created};
+        } else {
+            updated = new CachedMethodInvoker[overloads.length + 1];
+            System.arraycopy(overloads, 0, updated, 0, overloads.length);
+            updated[overloads.length] = created;
+        }
+        invokers.put(methodName, updated);
+        return created.invoker;
+    }
+
+    /**
+     * 为单个方法生成调用器
+     *
+     * @param serviceClass 服务实现类的Class对象
+     * @param method       serviceClass上的公有方法
+     * @return 方法的调用器
+     * @throws Throwable 生成调用器时抛出的异常
+     */
+    protected abstract MethodInvoker createMethodInvoker(Class<?> serviceClass, Method method) throws Throwable;
+
+    /**
+     * 基于Method.invoke的调用器，生成字节码失败时作为兜底，抛出方法本身的异常而不是InvocationTargetException
+     */
+    protected static MethodInvoker createReflectMethodInvoker(Method method) {
+        method.setAccessible(true);
+        return (serviceBean, parameters) -> {
+            try {
+                return method.invoke(serviceBean, parameters);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    private static final class CachedMethodInvoker {
+
+        private final Class<?>[] parameterTypes;
+
+        private final MethodInvoker invoker;
+
+        CachedMethodInvoker(Class<?>[] parameterTypes, MethodInvoker invoker) {
+            this.parameterTypes = parameterTypes;
+            this.invoker = invoker;
+        }
+
+        /**
+         * 比较参数类型，null视为无参
+         */
+        boolean matches(Class<?>[] types) {
+            Class<?>[] other = types == null ? EMPTY_PARAMETER_TYPES : types;
+            if (parameterTypes.length != other.length) {
+                return false;
+            }
+            for (int i = 0; i < other.length; i++) {
+                if (parameterTypes[i] != other[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
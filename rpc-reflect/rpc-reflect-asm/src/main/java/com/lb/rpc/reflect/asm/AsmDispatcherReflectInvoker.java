@@ -0,0 +1,75 @@
+package com.lb.rpc.reflect.asm;
+
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.asm.dispatcher.DispatcherGenerator;
+import com.lb.rpc.reflect.asm.dispatcher.ServiceDispatcher;
+import com.lb.rpc.reflect.base.BaseReflectInvoker;
+import com.lb.rpc.spi.annotation.SPIClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于ASM生成分发器的反射实现
+ * <p>
+ * 每个服务类生成一个ServiceDispatcher实现类，按方法下标switch后直接调用服务对象的方法，
+ * 参数按方法签名拆箱，返回值装箱，没有Method.invoke的参数数组检查和访问检查，也不需要代理对象。
+ * 服务类不能定义同包的类时回退到反射调用
+ */
+@SPIClass
+public class AsmDispatcherReflectInvoker extends BaseReflectInvoker {
+
+    private final Logger logger = LoggerFactory.getLogger(AsmDispatcherReflectInvoker.class);
+
+    /**
+     * 服务类到分发器的映射，生成失败的服务类的分发器为null
+     */
+    private final Map<Class<?>, GeneratedDispatcher> dispatchers = new ConcurrentHashMap<>();
+
+    @Override
+    protected MethodInvoker createMethodInvoker(Class<?> serviceClass, Method method) {
+        GeneratedDispatcher generated = dispatchers.computeIfAbsent(serviceClass, this::generate);
+        int methodIndex = generated.indexOf(method);
+        if (generated.dispatcher == null || methodIndex < 0) {
+            return createReflectMethodInvoker(method);
+        }
+        ServiceDispatcher dispatcher = generated.dispatcher;
+        return (serviceBean, parameters) -> dispatcher.dispatch(methodIndex, serviceBean, parameters);
+    }
+
+    private GeneratedDispatcher generate(Class<?> serviceClass) {
+        Method[] methods = DispatcherGenerator.getMethods(serviceClass);
+        try {
+            ServiceDispatcher dispatcher = DispatcherGenerator.generate(serviceClass, methods);
+            logger.debug("generate asm dispatcher for {}, methods: {}", serviceClass.getName(), methods.length);
+            return new GeneratedDispatcher(dispatcher, methods);
+        } catch (Exception | LinkageError e) {
+            logger.warn("generate asm dispatcher for {} failed, fall back to reflection", serviceClass.getName(), e);
+            return new GeneratedDispatcher(null, methods);
+        }
+    }
+
+    private static final class GeneratedDispatcher {
+
+        private final ServiceDispatcher dispatcher;
+
+        private final Method[] methods;
+
+        GeneratedDispatcher(ServiceDispatcher dispatcher, Method[] methods) {
+            this.dispatcher = dispatcher;
+            this.methods = methods;
+        }
+
+        int indexOf(Method method) {
+            for (int i = 0; i < methods.length; i++) {
+                if (methods[i].equals(method)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.lb.rpc.reflect.asm.dispatcher;
+
+import com.lb.rpc.reflect.asm.proxy.ReflectProxy;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 使用ASM为服务类生成ServiceDispatcher实现类
+ * <p>
+ * 生成的类与服务类位于同一个包中，通过服务类的Lookup定义，dispatch方法的结构为：
+ * <pre>
+ * switch (methodIndex) {
+ *     case 0: return ((Service) serviceBean).method0((String) parameters[0], ((Integer) parameters[1]).intValue());
+ *     case 1: ((Service) serviceBean).method1(); return null;
+ *     default: throw new IllegalArgumentException(...);
+ * }
+ * </pre>
+ */
+public class DispatcherGenerator {
+
+    /**
+     * 生成的分发器类名后缀
+     */
+    public static final String DISPATCHER_CLASSNAME_SUFFIX = "$AsmDispatcher";
+
+    private static final String DISPATCHER_INTERNAL_NAME = Type.getInternalName(ServiceDispatcher.class);
+
+    private static final String DISPATCH_DESC = "(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+
+    /**
+     * 获取服务类中可以分发的方法，即除Object声明的方法以外的公有方法，按方法名和描述符排序，数组下标即为方法下标
+     */
+    public static Method[] getMethods(Class<?> serviceClass) {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : serviceClass.getMethods()) {
+            if (method.getDeclaringClass() != Object.class) {
+                methods.add(method);
+            }
+        }
+        methods.sort(Comparator.comparing(Method::getName).thenComparing(method -> Type.getMethodDescriptor(method)));
+        return methods.toArray(new Method[0]);
+    }
+
+    /**
+     * 生成并定义服务类的分发器
+     *
+     * @param serviceClass 服务实现类
+     * @param methods      getMethods返回的方法数组
+     * @return 分发器实例
+     * @throws Exception 服务类不支持定义同包的类，例如位于系统类加载器无法访问的包中
+     */
+    public static ServiceDispatcher generate(Class<?> serviceClass, Method[] methods) throws Exception {
+        byte[] bytes = generateBytes(serviceClass, methods);
+        Class<?> dispatcherClass = MethodHandles.privateLookupIn(serviceClass, MethodHandles.lookup()).defineClass(bytes);
+        return (ServiceDispatcher) dispatcherClass.getDeclaredConstructor().newInstance();
+    }
+
+    private static byte[] generateBytes(Class<?> serviceClass, Method[] methods) {
+        String className = Type.getInternalName(serviceClass) + DISPATCHER_CLASSNAME_SUFFIX;
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                // 分支之间只有方法参数，不需要加载服务类计算公共父类
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(ReflectProxy.ASM_JDK_VERSION, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+                "java/lang/Object", new String[]{DISPATCHER_INTERNAL_NAME});
+
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "dispatch", DISPATCH_DESC, null, new String[]{"java/lang/Throwable"});
+        mv.visitCode();
+        Label defaultLabel = new Label();
+        if (methods.length > 0) {
+            Label[] labels = new Label[methods.length];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+            }
+            mv.visitVarInsn(Opcodes.ILOAD, 1);
+            mv.visitTableSwitchInsn(0, methods.length - 1, defaultLabel, labels);
+            String owner = Type.getInternalName(serviceClass);
+            for (int i = 0; i < methods.length; i++) {
+                mv.visitLabel(labels[i]);
+                visitInvoke(mv, owner, serviceClass.isInterface(), methods[i]);
+            }
+        }
+        mv.visitLabel(defaultLabel);
+        mv.visitTypeInsn(Opcodes.NEW, "java/lang/IllegalArgumentException");
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitLdcInsn("method index out of range of " + serviceClass.getName());
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/IllegalArgumentException", "<init>", "(Ljava/lang/String;)V", false);
+        mv.visitInsn(Opcodes.ATHROW);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * 生成一个分支：转换服务对象、拆箱参数、调用方法并装箱返回值
+     */
+    private static void visitInvoke(MethodVisitor mv, String owner, boolean ownerInterface, Method method) {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        if (!isStatic) {
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            mv.visitVarInsn(Opcodes.ALOAD, 3);
+            pushInt(mv, i);
+            mv.visitInsn(Opcodes.AALOAD);
+            unbox(mv, Type.getType(parameterTypes[i]));
+        }
+        int opcode = isStatic ? Opcodes.INVOKESTATIC : ownerInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL;
+        mv.visitMethodInsn(opcode, owner, method.getName(), Type.getMethodDescriptor(method), ownerInterface);
+        Type returnType = Type.getReturnType(method);
+        if (returnType.getSort() == Type.VOID) {
+            mv.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            box(mv, returnType);
+        }
+        mv.visitInsn(Opcodes.ARETURN);
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    private static void unbox(MethodVisitor mv, Type type) {
+        String wrapper = getWrapper(type);
+        if (wrapper == null) {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, type.getInternalName());
+            return;
+        }
+        mv.visitTypeInsn(Opcodes.CHECKCAST, wrapper);
+        mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapper, type.getClassName() + "Value", "()" + type.getDescriptor(), false);
+    }
+
+    private static void box(MethodVisitor mv, Type type) {
+        String wrapper = getWrapper(type);
+        if (wrapper != null) {
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapper, "valueOf", "(" + type.getDescriptor() + ")L" + wrapper + ";", false);
+        }
+    }
+
+    /**
+     * 获取基本类型对应的包装类型，非基本类型返回null
+     */
+    private static String getWrapper(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return "java/lang/Boolean";
+            case Type.BYTE:
+                return "java/lang/Byte";
+            case Type.CHAR:
+                return "java/lang/Character";
+            case Type.SHORT:
+                return "java/lang/Short";
+            case Type.INT:
+                return "java/lang/Integer";
+            case Type.LONG:
+                return "java/lang/Long";
+            case Type.FLOAT:
+                return "java/lang/Float";
+            case Type.DOUBLE:
+                return "java/lang/Double";
+            default:
+                return null;
+        }
+    }
+}
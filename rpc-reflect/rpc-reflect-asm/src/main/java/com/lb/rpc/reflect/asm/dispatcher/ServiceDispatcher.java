@@ -0,0 +1,19 @@
+package com.lb.rpc.reflect.asm.dispatcher;
+
+/**
+ * 服务类的方法分发器，由DispatcherGenerator为每个服务类生成实现类
+ * 实现类按方法下标switch到对应的分支，直接调用服务对象的方法，参数按方法签名拆箱，不经过Method.invoke
+ */
+public interface ServiceDispatcher {
+
+    /**
+     * 调用服务对象的方法
+     *
+     * @param methodIndex 方法在DispatcherGenerator.getMethods返回的数组中的下标
+     * @param serviceBean 服务对象
+     * @param parameters  方法参数
+     * @return 方法的返回值，void方法返回null
+     * @throws Throwable 服务方法抛出的异常，不会被包装
+     */
+    Object dispatch(int methodIndex, Object serviceBean, Object[] parameters) throws Throwable;
+}
@@ -8,6 +8,7 @@ import org.objectweb.asm.*;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
@@ -17,7 +18,7 @@ import java.util.Map;
 
 public class ReflectProxy {
 
-    public static final int ASM_VERSION = Opcodes.ASM5;
+    public static final int ASM_VERSION = Opcodes.ASM9;
     public static final int ASM_JDK_VERSION = Opcodes.V1_8;
 
     // 动态生成代理类的前缀
@@ -116,7 +117,7 @@ public class ReflectProxy {
 //            File outputFile = new File("/Users/jm/Downloads/Demo/" + newClassInnerName + ".class");
 //            save2File(outputFile, bytes);
             // 从指定ClassLoader加载Class
-            proxyClass = transfer2Class(classLoader, bytes);
+            proxyClass = transfer2Class(classLoader, targetClass, bytes);
             // 缓存
             saveProxyClassCache(classLoader, targetClass, proxyClass);
             // 实例化代理对象
@@ -617,8 +618,16 @@ public class ReflectProxy {
 
     /**
      * 将字节数组转换为 Class
+     * 代理类与目标类位于同一个包中，优先通过目标类的Lookup定义，Java 9及以上版本不需要反射访问ClassLoader.defineClass
      */
-    private static Class<?> transfer2Class(ClassLoader classLoader, byte[] bytes) {
+    private static Class<?> transfer2Class(ClassLoader classLoader, Class<?> targetClass, byte[] bytes) {
+        if (classLoader == targetClass.getClassLoader()) {
+            try {
+                return MethodHandles.privateLookupIn(targetClass, MethodHandles.lookup()).defineClass(bytes);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
         try {
             Class cl = Class.forName("java.lang.ClassLoader");
             Method defineClassMethod = cl.getDeclaredMethod("defineClass",
@@ -1,12 +1,19 @@
 package com.lb.rpc.reflect.bytebuddy;
 
-import com.lb.rpc.reflect.api.ReflectInvoker;
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.base.BaseReflectInvoker;
 import com.lb.rpc.spi.annotation.SPIClass;
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.matcher.ElementMatchers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ByteBuddy反射实现
@@ -14,23 +21,37 @@ import java.lang.reflect.Method;
  * 【技术优势】
  * ByteBuddy是一个现代的字节码操作库，提供了更简洁的API
  * 和更好的性能。它被广泛用于代理、Mock、AOP等场景。
+ * <p>
+ * 为每个服务方法生成一个实现MethodInvoker的类，通过MethodCall把参数数组展开、强转和拆箱后直接调用serviceBean上的方法，
+ * 不再每次调用都生成子类并在新创建的实例上调用。
  */
 @SPIClass
-public class ByteBuddyReflectInvoker implements ReflectInvoker {
+public class ByteBuddyReflectInvoker extends BaseReflectInvoker {
     private final Logger logger = LoggerFactory.getLogger(ByteBuddyReflectInvoker.class);
 
+    private final AtomicInteger index = new AtomicInteger();
+
     @Override
-    public Object invokeMethod(Object serviceBean, Class<?> serviceClass, String methodName, Class<?>[] parameterTypes, Object[] parameters) throws Throwable {
-        logger.info("use bytebuddy reflect type invoke method...");
-        // 动态子类创建
-        Class<?> childClass = new ByteBuddy()
-                .subclass(serviceClass)  // 创建子类
-                .make()                  // 生成字节码
-                .load(ByteBuddyReflectInvoker.class.getClassLoader())  // 加载类
-                .getLoaded();           // 获取加载的类
-        Object instance = childClass.getDeclaredConstructor().newInstance();
-        Method method = childClass.getMethod(methodName, parameterTypes);
-        method.setAccessible(true);
-        return method.invoke(instance, parameters);
+    protected MethodInvoker createMethodInvoker(Class<?> serviceClass, Method method) {
+        logger.debug("create bytebuddy invoker for {}#{}", serviceClass.getName(), method.getName());
+        try {
+            MethodCall call = MethodCall.invoke(method).onArgument(0);
+            if (method.getParameterCount() > 0) {
+                call = call.withArgumentArrayElements(1, method.getParameterCount());
+            }
+            // 与服务类定义在同一个包中，可以访问包级私有的服务类
+            Class<? extends MethodInvoker> invokerClass = new ByteBuddy()
+                    .subclass(MethodInvoker.class)
+                    .name(serviceClass.getName() + "$ByteBuddyInvoker$" + index.incrementAndGet())
+                    .method(ElementMatchers.named("invoke"))
+                    .intercept(call.withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC))
+                    .make()
+                    .load(serviceClass.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(MethodHandles.privateLookupIn(serviceClass, MethodHandles.lookup())))
+                    .getLoaded();
+            return invokerClass.getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            logger.warn("create bytebuddy invoker for {}#{} failed, fall back to reflection", serviceClass.getName(), method.getName(), e);
+            return createReflectMethodInvoker(method);
+        }
     }
 }
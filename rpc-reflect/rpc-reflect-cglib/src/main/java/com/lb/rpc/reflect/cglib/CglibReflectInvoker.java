@@ -1,12 +1,19 @@
 package com.lb.rpc.reflect.cglib;
 
-import com.lb.rpc.reflect.api.ReflectInvoker;
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.base.BaseReflectInvoker;
 import com.lb.rpc.spi.annotation.SPIClass;
 import net.sf.cglib.reflect.FastClass;
 import net.sf.cglib.reflect.FastMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * CGLib反射实现
  * <p>
@@ -18,21 +25,47 @@ import org.slf4j.LoggerFactory;
  * - 优点：调用性能优秀，比JDK反射快很多
  * - 缺点：首次调用时需要生成字节码，有初始化开销
  * - 适用场景：高频调用，对性能要求较高的场景
+ * <p>
+ * 每个服务类只生成一次FastClass，每个方法的FastMethod随调用器一起缓存
  */
 @SPIClass
-public class CglibReflectInvoker implements ReflectInvoker {
+public class CglibReflectInvoker extends BaseReflectInvoker {
     private final Logger logger = LoggerFactory.getLogger(CglibReflectInvoker.class);
 
+    private final Map<Class<?>, FastClass> fastClasses = new ConcurrentHashMap<>();
+
+    /**
+     * 无法生成FastClass的服务类，这些类的方法直接使用反射调用
+     */
+    private final Set<Class<?>> unsupportedClasses = ConcurrentHashMap.newKeySet();
+
     /**
      * 使用CGLIB的FastClass和FastMethod调用方法
      */
     @Override
-    public Object invokeMethod(Object serviceBean, Class<?> serviceClass, String methodName, Class<?>[] parameterTypes, Object[] parameters) throws Throwable {
-        logger.info("use cglib reflect type invoke method...");
+    protected MethodInvoker createMethodInvoker(Class<?> serviceClass, Method method) {
+        logger.debug("create cglib fast method invoker for {}#{}", serviceClass.getName(), method.getName());
         // 【FastClass创建】CGLib为目标类创建一个FastClass
         // FastClass通过索引访问方法，避免了反射的开销
-        FastClass serviceFastClass = FastClass.create(serviceClass);
-        FastMethod serviceFastMethod = serviceFastClass.getMethod(methodName, parameterTypes);
-        return serviceFastMethod.invoke(serviceBean, parameters);
+        if (unsupportedClasses.contains(serviceClass)) {
+            return createReflectMethodInvoker(method);
+        }
+        FastClass serviceFastClass;
+        try {
+            serviceFastClass = fastClasses.computeIfAbsent(serviceClass, FastClass::create);
+        } catch (RuntimeException | LinkageError e) {
+            // Java 9及以上版本需要 --add-opens java.base/java.lang=ALL-UNNAMED 才能定义FastClass
+            unsupportedClasses.add(serviceClass);
+            logger.warn("create cglib fast class for {} failed, fall back to reflection, add --add-opens java.base/java.lang=ALL-UNNAMED to enable cglib", serviceClass.getName(), e);
+            return createReflectMethodInvoker(method);
+        }
+        FastMethod serviceFastMethod = serviceFastClass.getMethod(method);
+        return (serviceBean, parameters) -> {
+            try {
+                return serviceFastMethod.invoke(serviceBean, parameters);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
     }
 }
@@ -1,36 +1,100 @@
 package com.lb.rpc.reflect.javassist;
 
-import com.lb.rpc.reflect.api.ReflectInvoker;
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.base.BaseReflectInvoker;
 import com.lb.rpc.spi.annotation.SPIClass;
-import javassist.util.proxy.ProxyFactory;
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Javassist反射实现
  * <p>
  * 【技术特点】
  * Javassist是一个用于编辑Java字节码的库，可以在运行时修改类。
- * 这里通过创建代理类的方式实现方法调用。
+ * 这里为每个服务方法生成一个实现MethodInvoker的类，在生成的代码中把参数强转、拆箱后直接调用serviceBean上的方法，
+ * 生成的类与服务类位于同一个包中，调用时没有反射的开销。
  * <p>
- * 【注意事项】
- * 这个实现存在一个问题：它创建了新的实例而不是使用传入的serviceBean，
- * 这在有状态的服务中可能导致问题。实际应用中需要优化。
+ * 之前的实现每次调用都生成新的代理子类并在新创建的实例上调用，有状态的服务会丢失状态，现在始终在传入的serviceBean上调用。
  */
 @SPIClass
-public class JavassistReflectInvoker implements ReflectInvoker {
+public class JavassistReflectInvoker extends BaseReflectInvoker {
     private final Logger logger = LoggerFactory.getLogger(JavassistReflectInvoker.class);
 
+    private final AtomicInteger index = new AtomicInteger();
+
     @Override
-    public Object invokeMethod(Object serviceBean, Class<?> serviceClass, String methodName, Class<?>[] parameterTypes, Object[] parameters) throws Throwable {
-        logger.info("use javassist reflect type invoke method...");
-        ProxyFactory proxyFactory = new ProxyFactory();
-        proxyFactory.setSuperclass(serviceClass);   // 设置父类
-        Class<?> childClass = proxyFactory.createClass();   // 生成代理类
-        Method method = childClass.getMethod(methodName, parameterTypes);
-        method.setAccessible(true);
-        return method.invoke(childClass.newInstance(), parameters);
+    protected MethodInvoker createMethodInvoker(Class<?> serviceClass, Method method) {
+        logger.debug("create javassist invoker for {}#{}", serviceClass.getName(), method.getName());
+        try {
+            ClassPool classPool = new ClassPool(true);
+            classPool.insertClassPath(new LoaderClassPath(serviceClass.getClassLoader()));
+            classPool.insertClassPath(new ClassClassPath(MethodInvoker.class));
+            CtClass invokerClass = classPool.makeClass(serviceClass.getName() + "$JavassistInvoker$" + index.incrementAndGet());
+            invokerClass.addInterface(classPool.get(MethodInvoker.class.getName()));
+            invokerClass.addConstructor(CtNewConstructor.defaultConstructor(invokerClass));
+            invokerClass.addMethod(CtNewMethod.make(this.getInvokeSource(serviceClass, method), invokerClass));
+            // 与服务类定义在同一个包中，可以访问包级私有的服务类
+            Class<?> loaded = invokerClass.toClass(serviceClass);
+            invokerClass.detach();
+            return (MethodInvoker) loaded.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            logger.warn("create javassist invoker for {}#{} failed, fall back to reflection", serviceClass.getName(), method.getName(), e);
+            return createReflectMethodInvoker(method);
+        }
+    }
+
+    /**
+     * 生成invoke方法的源码，例如：
+     * public Object invoke(Object serviceBean, Object[] parameters) throws Throwable {
+     * return ($w) ((DemoServiceImpl) serviceBean).hello((java.lang.String) parameters[0], ((java.lang.Integer) parameters[1]).intValue());
+     * }
+     */
+    private String getInvokeSource(Class<?> serviceClass, Method method) {
+        StringBuilder call = new StringBuilder();
+        call.append("((").append(getTypeName(serviceClass)).append(") serviceBean).").append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                call.append(", ");
+            }
+            Class<?> type = parameterTypes[i];
+            if (type.isPrimitive()) {
+                call.append("((").append(getWrapperName(type)).append(") parameters[").append(i).append("]).").append(type.getName()).append("Value()");
+            } else {
+                call.append('(').append(getTypeName(type)).append(") parameters[").append(i).append(']');
+            }
+        }
+        call.append(')');
+        StringBuilder source = new StringBuilder("public Object invoke(Object serviceBean, Object[] parameters) throws Throwable { ");
+        if (method.getReturnType() == void.class) {
+            source.append(call).append("; return null; }");
+        } else {
+            source.append("return ($w) ").append(call).append("; }");
+        }
+        return source.toString();
+    }
+
+    private static String getTypeName(Class<?> type) {
+        return type.isArray() ? getTypeName(type.getComponentType()) + "[]" : type.getName();
+    }
+
+    private static String getWrapperName(Class<?> primitive) {
+        if (primitive == int.class) {
+            return Integer.class.getName();
+        }
+        if (primitive == char.class) {
+            return Character.class.getName();
+        }
+        String name = primitive.getName();
+        return "java.lang." + Character.toUpperCase(name.charAt(0)) + name.substring(1);
     }
 }
@@ -1,11 +1,15 @@
 package com.lb.rpc.reflect.jdk;
 
-import com.lb.rpc.reflect.api.ReflectInvoker;
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.base.BaseReflectInvoker;
 import com.lb.rpc.spi.annotation.SPIClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 /**
  * JDK原生反射实现
@@ -14,17 +18,31 @@ import java.lang.reflect.Method;
  * - 优点：JDK原生支持，兼容性最好，无额外依赖
  * - 缺点：性能相对较低，尤其是频繁调用时
  * - 适用场景：对性能要求不高，追求稳定性的场景
+ * <p>
+ * 每个方法只查找一次，转换为(Object, Object[])Object形式的MethodHandle后缓存，
+ * 调用时不再有getMethod、setAccessible和Method.invoke的访问检查开销
  */
 @SPIClass
-public class JdkReflectInvoker implements ReflectInvoker {
+public class JdkReflectInvoker extends BaseReflectInvoker {
 
     private final Logger logger = LoggerFactory.getLogger(JdkReflectInvoker.class);
 
+    private static final Object[] EMPTY_PARAMETERS = new Object[0];
+
     @Override
-    public Object invokeMethod(Object serviceBean, Class<?> serviceClass, String methodName, Class<?>[] parameterTypes, Object[] parameters) throws Throwable {
-        logger.info("use jdk reflect type invoke method...");
-        Method method = serviceClass.getMethod(methodName, parameterTypes);
+    protected MethodInvoker createMethodInvoker(Class<?> serviceClass, Method method) throws Throwable {
+        logger.debug("create jdk method handle invoker for {}#{}", serviceClass.getName(), method.getName());
         method.setAccessible(true);
-        return method.invoke(serviceBean, parameters);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        // (Impl, A, B)R -> (Object, Object, Object)Object -> (Object, Object[])Object，void方法返回null
+        MethodHandle invoker = handle.asType(handle.type().generic())
+                .asSpreader(Object[].class, method.getParameterCount());
+        return (serviceBean, parameters) -> {
+            Object[] arguments = parameters == null ? EMPTY_PARAMETERS : parameters;
+            return (Object) invoker.invokeExact(serviceBean, arguments);
+        };
     }
 }
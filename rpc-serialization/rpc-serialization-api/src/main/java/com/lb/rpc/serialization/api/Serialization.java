@@ -2,6 +2,8 @@ package com.lb.rpc.serialization.api;
 
 import com.lb.rpc.constants.RpcConstants;
 import com.lb.rpc.spi.annotation.SPI;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 
 @SPI(RpcConstants.SERIALIZATION_JDK)
 public interface Serialization {
@@ -11,8 +13,28 @@ public interface Serialization {
      */
     <T> byte[] serialize(T obj);
 
+    /**
+     * 直接序列化到ByteBuf，从out当前的写索引开始写入
+     * <p>
+     * 默认实现先序列化为字节数组再写入，具体实现可以覆盖该方法直接写入池化的输出缓冲区，
+     * 避免编码时的中间数组和一次内存拷贝
+     */
+    default <T> void serialize(T obj, ByteBuf out) {
+        out.writeBytes(serialize(obj));
+    }
+
     /**
      * 反序列化
      */
     <T> T deserialize(byte[] data, Class<T> cls);
+
+    /**
+     * 直接从ByteBuf反序列化，in中的可读字节即为完整的消息体
+     * <p>
+     * 默认实现会拷贝出一个字节数组再反序列化，具体实现可以覆盖该方法直接读取ByteBuf，
+     * 避免解码时为每个消息体分配中间数组
+     */
+    default <T> T deserialize(ByteBuf in, Class<T> cls) {
+        return deserialize(ByteBufUtil.getBytes(in), cls);
+    }
 }
@@ -3,10 +3,15 @@ package com.lb.rpc.serialization.fst;
 import com.lb.rpc.common.exception.SerializerException;
 import com.lb.rpc.serialization.api.Serialization;
 import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import org.nustaq.serialization.FSTConfiguration;
+import org.nustaq.serialization.FSTObjectOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+
 @SPIClass
 public class FstSerialization implements Serialization {
     private final Logger logger = LoggerFactory.getLogger(FstSerialization.class);
@@ -21,6 +26,22 @@ public class FstSerialization implements Serialization {
         return conf.asByteArray(obj);
     }
 
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        logger.info("execute fst serialize...");
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        FSTConfiguration conf = FSTConfiguration.getDefaultConfiguration();
+        FSTObjectOutput objectOutput = conf.getObjectOutput(new ByteBufOutputStream(out));
+        try {
+            objectOutput.writeObject(obj);
+            objectOutput.flush();
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public <T> T deserialize(byte[] data, Class<T> cls) {
         logger.info("execute fst deserialize...");
@@ -5,12 +5,16 @@ import com.caucho.hessian.io.Hessian2Output;
 import com.lb.rpc.common.exception.SerializerException;
 import com.lb.rpc.serialization.api.Serialization;
 import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 @SPIClass
 public class Hessian2Serialization implements Serialization {
@@ -46,13 +50,48 @@ public class Hessian2Serialization implements Serialization {
         return result;
     }
 
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        logger.info("execute hessian2 serialize...");
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        Hessian2Output hessian2Output = new Hessian2Output(new ByteBufOutputStream(out));
+        try {
+            hessian2Output.startMessage();
+            hessian2Output.writeObject(obj);
+            hessian2Output.completeMessage();
+            hessian2Output.flush();
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            try {
+                hessian2Output.close();
+            } catch (IOException e) {
+                throw new SerializerException(e.getMessage(), e);
+            }
+        }
+    }
+
     @Override
     public <T> T deserialize(byte[] data, Class<T> cls) {
         logger.info("execute hessian2 deserialize...");
         if (data == null) {
             throw new SerializerException("deserialize data is null");
         }
-        ByteArrayInputStream byteInputStream = new ByteArrayInputStream(data);
+        return readObject(new ByteArrayInputStream(data));
+    }
+
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        logger.info("execute hessian2 deserialize...");
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        return readObject(new ByteBufInputStream(in));
+    }
+
+    private <T> T readObject(InputStream byteInputStream) {
         Hessian2Input hessian2Input = new Hessian2Input(byteInputStream);
         T object = null;
         try {
@@ -3,6 +3,9 @@ package com.lb.rpc.serialization.jdk;
 import com.lb.rpc.common.exception.SerializerException;
 import com.lb.rpc.serialization.api.Serialization;
 import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +54,29 @@ public class JdkSerialization implements Serialization {
         }
     }
 
+    /**
+     * 序列化方法：直接将对象写入ByteBuf
+     *
+     * @param obj 待序列化的对象
+     * @param out 输出的字节缓冲区
+     * @param <T> 对象类型泛型
+     * @throws SerializerException 序列化失败时抛出异常
+     */
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        logger.info("execute jdk serialize...");
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        try {
+            ObjectOutputStream objectOutputStream = new ObjectOutputStream(new ByteBufOutputStream(out));
+            objectOutputStream.writeObject(obj);
+            objectOutputStream.flush();
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
     /**
      * 反序列化方法：将字节数组转换为指定类型的对象
      *
@@ -83,4 +109,27 @@ public class JdkSerialization implements Serialization {
             throw new SerializerException(e.getMessage(), e);
         }
     }
+
+    /**
+     * 反序列化方法：直接从ByteBuf读取，不再拷贝出中间字节数组
+     *
+     * @param in  待反序列化的消息体
+     * @param cls 目标对象的Class类型
+     * @param <T> 目标对象类型泛型
+     * @return 反序列化后的对象实例
+     * @throws SerializerException 反序列化失败时抛出异常
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        logger.info("execute jdk deserialize...");
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        try {
+            ObjectInputStream objectInputStream = new ObjectInputStream(new ByteBufInputStream(in));
+            return (T) objectInputStream.readObject();
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
 }
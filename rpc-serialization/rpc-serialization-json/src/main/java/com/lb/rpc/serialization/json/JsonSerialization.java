@@ -10,10 +10,15 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.lb.rpc.common.exception.SerializerException;
 import com.lb.rpc.serialization.api.Serialization;
 import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
 
 @SPIClass
@@ -51,6 +56,19 @@ public class JsonSerialization implements Serialization {
         return bytes;
     }
 
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        logger.info("execute json serialize...");
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        try {
+            objMapper.writeValue((OutputStream) new ByteBufOutputStream(out), obj);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
+
     @Override
     public <T> T deserialize(byte[] data, Class<T> cls) {
         logger.info("execute json deserialize...");
@@ -65,4 +83,19 @@ public class JsonSerialization implements Serialization {
         }
         return obj;
     }
+
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        logger.info("execute json deserialize...");
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        T obj = null;
+        try {
+            obj = objMapper.readValue((InputStream) new ByteBufInputStream(in), cls);
+        } catch (IOException e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+        return obj;
+    }
 }
@@ -7,6 +7,9 @@ import com.esotericsoftware.kryo.serializers.JavaSerializer;
 import com.lb.rpc.common.exception.SerializerException;
 import com.lb.rpc.serialization.api.Serialization;
 import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +45,20 @@ public class KryoSerialization implements Serialization {
         return bytes;
     }
 
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        logger.info("execute kryo serialize...");
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        Kryo kryo = new Kryo();
+        kryo.setReferences(false);
+        kryo.register(obj.getClass(), new JavaSerializer());
+        Output output = new Output(new ByteBufOutputStream(out));
+        kryo.writeClassAndObject(output, obj);
+        output.flush();
+    }
+
     @Override
     public <T> T deserialize(byte[] data, Class<T> cls) {
         logger.info("execute kryo deserialize...");
@@ -55,4 +72,17 @@ public class KryoSerialization implements Serialization {
         Input input = new Input(bais);
         return (T) kryo.readClassAndObject(input);
     }
+
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        logger.info("execute kryo deserialize...");
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        Kryo kryo = new Kryo();
+        kryo.setReferences(false);
+        kryo.register(cls, new JavaSerializer());
+        Input input = new Input(new ByteBufInputStream(in));
+        return (T) kryo.readClassAndObject(input);
+    }
 }
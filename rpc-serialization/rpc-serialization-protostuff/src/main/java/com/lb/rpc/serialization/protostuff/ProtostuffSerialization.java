@@ -7,6 +7,9 @@ import com.dyuproject.protostuff.runtime.RuntimeSchema;
 import com.lb.rpc.common.exception.SerializerException;
 import com.lb.rpc.serialization.api.Serialization;
 import com.lb.rpc.spi.annotation.SPIClass;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
 import org.objenesis.Objenesis;
 import org.objenesis.ObjenesisStd;
 import org.slf4j.Logger;
@@ -58,6 +61,28 @@ public class ProtostuffSerialization implements Serialization {
         }
     }
 
+    /**
+     * 序列化（对象 -> ByteBuf）
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> void serialize(T obj, ByteBuf out) {
+        logger.info("execute protostuff serialize...");
+        if (obj == null) {
+            throw new SerializerException("serialize object is null");
+        }
+        Class<T> cls = (Class<T>) obj.getClass();
+        LinkedBuffer buffer = LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE);
+        try {
+            Schema<T> schema = getSchema(cls);
+            ProtostuffIOUtil.writeTo(new ByteBufOutputStream(out), obj, schema, buffer);
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
     /**
      * 反序列化（字节数组 -> 对象）
      */
@@ -76,4 +101,28 @@ public class ProtostuffSerialization implements Serialization {
             throw new SerializerException(e.getMessage(), e);
         }
     }
+
+    /**
+     * 反序列化（ByteBuf -> 对象），堆内存直接读取底层数组，直接内存按流读取
+     */
+    @Override
+    public <T> T deserialize(ByteBuf in, Class<T> cls) {
+        logger.info("execute protostuff deserialize...");
+        if (in == null) {
+            throw new SerializerException("deserialize data is null");
+        }
+        try {
+            T message = (T) objenesis.newInstance(cls);
+            Schema<T> schema = getSchema(cls);
+            if (in.hasArray()) {
+                ProtostuffIOUtil.mergeFrom(in.array(), in.arrayOffset() + in.readerIndex(), in.readableBytes(), message, schema);
+                in.skipBytes(in.readableBytes());
+            } else {
+                ProtostuffIOUtil.mergeFrom(new ByteBufInputStream(in), message, schema);
+            }
+            return message;
+        } catch (Exception e) {
+            throw new SerializerException(e.getMessage(), e);
+        }
+    }
 }
\ No newline at end of file
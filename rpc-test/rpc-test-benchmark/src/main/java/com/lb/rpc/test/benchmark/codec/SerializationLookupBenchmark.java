@@ -0,0 +1,71 @@
+package com.lb.rpc.test.benchmark.codec;
+
+import com.lb.rpc.codec.helper.SerializationHelper;
+import com.lb.rpc.common.utils.SerializationUtils;
+import com.lb.rpc.constants.RpcConstants;
+import com.lb.rpc.serialization.api.Serialization;
+import com.lb.rpc.spi.loader.ExtensionLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编解码每帧获取序列化实现的开销对比：ExtensionLoader与按序列化ID/类型缓存
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationLookupBenchmark {
+
+    @Param({RpcConstants.SERIALIZATION_JDK, RpcConstants.SERIALIZATION_PROTOSTUFF})
+    private String serializationType;
+
+    private byte serializationId;
+
+    @Setup
+    public void setup() {
+        serializationId = SerializationUtils.getSerializationId(serializationType);
+        // 预先加载，只比较稳定状态下的查找开销
+        ExtensionLoader.getExtension(Serialization.class, serializationType);
+        SerializationHelper.getSerialization(serializationId);
+    }
+
+    @Benchmark
+    public Serialization extensionLoader() {
+        return ExtensionLoader.getExtension(Serialization.class, serializationType);
+    }
+
+    @Benchmark
+    public Serialization helperById() {
+        return SerializationHelper.getSerialization(serializationId);
+    }
+
+    @Benchmark
+    public Serialization helperByType() {
+        return SerializationHelper.getSerialization(serializationType);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SerializationLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,74 @@
+package com.lb.rpc.test.benchmark.dispatch;
+
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.test.benchmark.loopback.LoopbackRpc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按方法id调用与按类名、方法名、参数类型调用的吞吐量对比，
+ * 方法id调用的请求体不再携带字符串和参数类型，服务提供者也不再拼接服务key
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class MethodIdDispatchBenchmark {
+
+    @Param({"false", "true"})
+    private boolean methodIdDispatch;
+
+    @Param({"protostuff", "jdk"})
+    private String serializationType;
+
+    private LoopbackRpc loopbackRpc;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        ConsumerConfig consumerConfig = new ConsumerConfig();
+        consumerConfig.setMethodIdDispatch(methodIdDispatch);
+        loopbackRpc = new LoopbackRpc(serializationType);
+        loopbackRpc.start(new ServerConfig(), consumerConfig);
+        // 第一个请求触发方法表的协商，之后的请求才按方法id发送
+        loopbackRpc.call("zhiyu");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loopbackRpc.close();
+    }
+
+    @Benchmark
+    public Object echo() throws Exception {
+        return loopbackRpc.call("zhiyu");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MethodIdDispatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
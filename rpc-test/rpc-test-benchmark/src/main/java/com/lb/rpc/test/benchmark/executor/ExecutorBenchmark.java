@@ -0,0 +1,69 @@
+package com.lb.rpc.test.benchmark.executor;
+
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.test.benchmark.loopback.LoopbackRpc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务提供者执行业务请求的线程池类型对吞吐量的影响，EchoService#echo不阻塞，
+ * direct省去了线程切换；virtual在Java 21以下版本回退到fixed
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ExecutorBenchmark {
+
+    @Param({"fixed", "virtual", "direct"})
+    private String executorType;
+
+    private LoopbackRpc loopbackRpc;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setExecutorType(executorType);
+        loopbackRpc = new LoopbackRpc("protostuff");
+        loopbackRpc.start(serverConfig, new ConsumerConfig());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loopbackRpc.close();
+    }
+
+    @Benchmark
+    public Object echo() throws Exception {
+        return loopbackRpc.call("zhiyu");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ExecutorBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
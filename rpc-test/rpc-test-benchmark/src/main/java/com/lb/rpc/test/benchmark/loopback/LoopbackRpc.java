@@ -0,0 +1,190 @@
+package com.lb.rpc.test.benchmark.loopback;
+
+import com.lb.rpc.common.helper.RpcServiceHelper;
+import com.lb.rpc.common.helper.TransportHelper;
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.consumer.common.handler.RpcConsumerHandler;
+import com.lb.rpc.consumer.common.initializer.RpcConsumerInitializer;
+import com.lb.rpc.consumer.common.pool.RpcConsumerHandlerPool;
+import com.lb.rpc.protocol.RpcProtocol;
+import com.lb.rpc.protocol.header.RpcHeaderFactory;
+import com.lb.rpc.protocol.meta.ServiceMeta;
+import com.lb.rpc.protocol.request.RpcRequest;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.provider.common.executor.ProviderExecutors;
+import com.lb.rpc.provider.common.initializer.RpcProviderInitializer;
+import com.lb.rpc.provider.common.service.ProviderServiceRegistry;
+import com.lb.rpc.proxy.api.consumer.RpcCallOptions;
+import com.lb.rpc.proxy.api.future.RPCFuture;
+import com.lb.rpc.reflect.api.ReflectInvoker;
+import com.lb.rpc.spi.loader.ExtensionLoader;
+import com.lb.rpc.test.benchmark.service.EchoService;
+import com.lb.rpc.test.benchmark.service.EchoServiceImpl;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基准测试使用的本机回环RPC：不依赖注册中心，直接用真实的编解码器和Handler连接服务提供者和消费者，
+ * 并统计两端真正下发到Socket的flush次数
+ */
+public class LoopbackRpc {
+
+    private static final String VERSION = "1.0.0";
+    private static final String GROUP = "benchmark";
+
+    private static final String SERVICE_KEY = RpcServiceHelper.buildServiceKey(EchoService.class.getName(), VERSION, GROUP);
+
+    private static final RpcCallOptions ECHO_CALL_OPTIONS = new RpcCallOptions(
+            RpcServiceHelper.buildMethodKey(SERVICE_KEY, "echo", new Class[]{String.class}), 0, null);
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private EventLoopGroup clientGroup;
+
+    private final LongAdder serverFlushes = new LongAdder();
+    private final LongAdder clientFlushes = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+
+    private final String serializationType;
+    private Channel serverChannel;
+    private RpcConsumerHandlerPool consumerHandlerPool;
+    private ProviderExecutors providerExecutors;
+
+    public LoopbackRpc(String serializationType) {
+        this.serializationType = serializationType;
+    }
+
+    public void start(ServerConfig serverConfig, ConsumerConfig consumerConfig) throws InterruptedException {
+        Map<String, Object> handlerMap = new HashMap<>();
+        handlerMap.put(SERVICE_KEY, new EchoServiceImpl());
+        ProviderServiceRegistry serviceRegistry = new ProviderServiceRegistry(ExtensionLoader.getExtension(ReflectInvoker.class, "jdk"), handlerMap, Collections.emptyMap());
+        boolean serverEpoll = TransportHelper.useEpoll(serverConfig.getTransportType());
+        boolean clientEpoll = TransportHelper.useEpoll(consumerConfig.getTransportType());
+        bossGroup = TransportHelper.newEventLoopGroup(serverEpoll, 1);
+        workerGroup = TransportHelper.newEventLoopGroup(serverEpoll, 0);
+        clientGroup = TransportHelper.newEventLoopGroup(clientEpoll, 4);
+        providerExecutors = new ProviderExecutors(serverConfig, Collections.emptyMap());
+        serverChannel = new ServerBootstrap().group(bossGroup, workerGroup)
+                .channel(TransportHelper.getServerSocketChannelClass(serverEpoll))
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        channel.pipeline().addLast(new FlushCounter(serverFlushes), new RpcProviderInitializer(serverConfig, serviceRegistry, providerExecutors));
+                    }
+                })
+                .bind("127.0.0.1", 0).sync().channel();
+        int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+        Bootstrap bootstrap = new Bootstrap().group(clientGroup)
+                .channel(TransportHelper.getSocketChannelClass(clientEpoll))
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        channel.pipeline().addLast(new FlushCounter(clientFlushes), new RpcConsumerInitializer(consumerConfig));
+                    }
+                });
+        ServiceMeta serviceMeta = new ServiceMeta();
+        serviceMeta.setServiceAddr("127.0.0.1");
+        serviceMeta.setServicePort(port);
+        consumerHandlerPool = new RpcConsumerHandlerPool(serviceMeta, consumerConfig, meta -> {
+            CompletableFuture<RpcConsumerHandler> future = new CompletableFuture<>();
+            bootstrap.connect(meta.getServiceAddr(), meta.getServicePort()).addListener((ChannelFutureListener) channelFuture -> {
+                if (channelFuture.isSuccess()) {
+                    future.complete(channelFuture.channel().pipeline().get(RpcConsumerHandler.class));
+                } else {
+                    future.completeExceptionally(channelFuture.cause());
+                }
+            });
+            return future;
+        });
+    }
+
+    /**
+     * 同步调用一次EchoService#echo
+     */
+    public Object call(String message) throws Exception {
+        Object result = this.send(message).get(10, TimeUnit.SECONDS);
+        calls.increment();
+        return result;
+    }
+
+    /**
+     * 发送一次EchoService#echo请求但不等待响应，用于在同一连接上流水线发送请求
+     */
+    public RPCFuture send(String message) throws Exception {
+        RpcProtocol<RpcRequest> protocol = new RpcProtocol<>();
+        protocol.setHeader(RpcHeaderFactory.getRequestHeader(serializationType));
+        RpcRequest request = new RpcRequest();
+        request.setClassName(EchoService.class.getName());
+        request.setMethodName("echo");
+        request.setParameterTypes(new Class[]{String.class});
+        request.setParameters(new Object[]{message});
+        request.setVersion(VERSION);
+        request.setGroup(GROUP);
+        request.setAsync(false);
+        request.setOneway(false);
+        protocol.setBody(request);
+        return consumerHandlerPool.select().get(10, TimeUnit.SECONDS).sendRequest(protocol, ECHO_CALL_OPTIONS, false, false);
+    }
+
+    public RpcConsumerHandlerPool getConsumerHandlerPool() {
+        return consumerHandlerPool;
+    }
+
+    public long getServerFlushes() {
+        return serverFlushes.sum();
+    }
+
+    public long getClientFlushes() {
+        return clientFlushes.sum();
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public void close() {
+        consumerHandlerPool.close();
+        serverChannel.close().syncUninterruptibly();
+        clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        workerGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        bossGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+        providerExecutors.shutdown();
+    }
+
+    /**
+     * 位于pipeline最前面，统计真正到达Socket的flush次数，即write系统调用的上限
+     */
+    @ChannelHandler.Sharable
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+        private final LongAdder flushes;
+
+        FlushCounter(LongAdder flushes) {
+            this.flushes = flushes;
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushes.increment();
+            super.flush(ctx);
+        }
+    }
+}
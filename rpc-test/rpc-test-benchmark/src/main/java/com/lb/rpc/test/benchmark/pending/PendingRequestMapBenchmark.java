@@ -0,0 +1,102 @@
+package com.lb.rpc.test.benchmark.pending;
+
+import com.lb.rpc.common.collection.ConcurrentLongObjectMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 等待响应的请求表在多线程并发put和remove时的吞吐对比：装箱key的ConcurrentHashMap与long类型key的分段开放寻址表
+ * 每个线程模拟一个发送请求的业务线程，请求id全局递增，每次put一个新请求后remove pending个请求之前的请求，表中始终保持约threads * pending个元素
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class PendingRequestMapBenchmark {
+
+    @Param({"1024"})
+    private int pending;
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    private final Object future = new Object();
+
+    private Map<Long, Object> concurrentHashMap;
+
+    private ConcurrentLongObjectMap<Object> concurrentLongObjectMap;
+
+    @Setup
+    public void setup() {
+        concurrentHashMap = new ConcurrentHashMap<>();
+        concurrentLongObjectMap = new ConcurrentLongObjectMap<>();
+    }
+
+    /**
+     * 每个线程保存自己已经put但还没有remove的请求id
+     */
+    @State(Scope.Thread)
+    public static class RequestIds {
+        private long[] ids;
+        private int index;
+
+        @Setup
+        public void setup(PendingRequestMapBenchmark benchmark) {
+            ids = new long[benchmark.pending];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = benchmark.idGenerator.incrementAndGet();
+                benchmark.concurrentHashMap.put(ids[i], benchmark.future);
+                benchmark.concurrentLongObjectMap.put(ids[i], benchmark.future);
+            }
+        }
+
+        private long next(long id) {
+            long previous = ids[index];
+            ids[index] = id;
+            index = (index + 1) % ids.length;
+            return previous;
+        }
+    }
+
+    @Benchmark
+    public Object concurrentHashMap(RequestIds requestIds) {
+        long id = idGenerator.incrementAndGet();
+        concurrentHashMap.put(id, future);
+        return concurrentHashMap.remove(requestIds.next(id));
+    }
+
+    @Benchmark
+    public Object concurrentLongObjectMap(RequestIds requestIds) {
+        long id = idGenerator.incrementAndGet();
+        concurrentLongObjectMap.put(id, future);
+        return concurrentLongObjectMap.remove(requestIds.next(id));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PendingRequestMapBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
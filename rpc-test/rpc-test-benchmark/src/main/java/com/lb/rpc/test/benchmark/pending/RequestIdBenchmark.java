@@ -0,0 +1,52 @@
+package com.lb.rpc.test.benchmark.pending;
+
+import com.lb.rpc.common.id.IdFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多线程并发生成请求id的吞吐对比：所有线程共享一个AtomicLong与每个线程按段分配id的IdFactory
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RequestIdBenchmark {
+
+    private final AtomicLong atomicLong = new AtomicLong();
+
+    @Benchmark
+    public Long sharedAtomicLong() {
+        return atomicLong.incrementAndGet();
+    }
+
+    @Benchmark
+    public long idFactory() {
+        return IdFactory.getId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RequestIdBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,83 @@
+package com.lb.rpc.test.benchmark.reflect;
+
+import com.lb.rpc.reflect.api.MethodInvoker;
+import com.lb.rpc.reflect.api.ReflectInvoker;
+import com.lb.rpc.spi.loader.ExtensionLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ASM生成的分发器与jdk、cglib反射调用的开销对比，服务方法带基本类型参数和返回值，
+ * invokeMethod按方法名和参数类型查找调用器，methodInvoker对应按方法id调用时使用启动时获取的调用器
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class DispatcherBenchmark {
+
+    private static final Class<?>[] PARAMETER_TYPES = new Class<?>[]{int.class, long.class};
+
+    @Param({"jdk", "cglib", "asmdispatcher"})
+    private String reflectType;
+
+    private ReflectInvoker reflectInvoker;
+
+    private MethodInvoker methodInvoker;
+
+    private final CalculatorService serviceBean = new CalculatorService();
+
+    private final Object[] parameters = new Object[]{1, 2L};
+
+    @Setup
+    public void setup() throws Throwable {
+        reflectInvoker = ExtensionLoader.getExtension(ReflectInvoker.class, reflectType);
+        reflectInvoker.prepare(CalculatorService.class);
+        methodInvoker = reflectInvoker.getMethodInvoker(CalculatorService.class, "add", PARAMETER_TYPES);
+    }
+
+    @Benchmark
+    public Object invokeMethod() throws Throwable {
+        return reflectInvoker.invokeMethod(serviceBean, CalculatorService.class, "add", PARAMETER_TYPES, parameters);
+    }
+
+    @Benchmark
+    public Object methodInvoker() throws Throwable {
+        return methodInvoker.invoke(serviceBean, parameters);
+    }
+
+    public static class CalculatorService {
+
+        public long add(int a, long b) {
+            return a + b;
+        }
+
+        public String name() {
+            return "calculator";
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(DispatcherBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
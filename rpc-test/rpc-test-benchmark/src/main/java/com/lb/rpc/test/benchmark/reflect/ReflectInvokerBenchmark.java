@@ -0,0 +1,75 @@
+package com.lb.rpc.test.benchmark.reflect;
+
+import com.lb.rpc.reflect.api.ReflectInvoker;
+import com.lb.rpc.spi.loader.ExtensionLoader;
+import com.lb.rpc.test.benchmark.service.EchoServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务提供者调用服务方法的开销对比：各反射类型缓存方法调用器后的调用与每次查找Method的反射调用
+ * cglib在Java 9及以上版本需要打开java.lang才能生成FastClass，否则回退到反射调用
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.lang=ALL-UNNAMED")
+@State(Scope.Benchmark)
+public class ReflectInvokerBenchmark {
+
+    private static final Class<?>[] PARAMETER_TYPES = new Class<?>[]{String.class};
+
+    @Param({"jdk", "cglib", "javassist", "bytebuddy", "asm", "asmdispatcher"})
+    private String reflectType;
+
+    private ReflectInvoker reflectInvoker;
+
+    private final EchoServiceImpl serviceBean = new EchoServiceImpl();
+
+    private final Object[] parameters = new Object[]{"hello"};
+
+    @Setup
+    public void setup() throws Throwable {
+        reflectInvoker = ExtensionLoader.getExtension(ReflectInvoker.class, reflectType);
+        reflectInvoker.prepare(EchoServiceImpl.class);
+    }
+
+    @Benchmark
+    public Object invoker() throws Throwable {
+        return reflectInvoker.invokeMethod(serviceBean, EchoServiceImpl.class, "echo", PARAMETER_TYPES, parameters);
+    }
+
+    /**
+     * 每次调用都查找Method，作为缓存调用器的对照
+     */
+    @Benchmark
+    public Object uncachedReflect() throws Exception {
+        Method method = EchoServiceImpl.class.getMethod("echo", PARAMETER_TYPES);
+        method.setAccessible(true);
+        return method.invoke(serviceBean, parameters);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ReflectInvokerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,6 @@
+package com.lb.rpc.test.benchmark.service;
+
+public interface EchoService {
+
+    String echo(String message);
+}
@@ -0,0 +1,9 @@
+package com.lb.rpc.test.benchmark.service;
+
+public class EchoServiceImpl implements EchoService {
+
+    @Override
+    public String echo(String message) {
+        return message;
+    }
+}
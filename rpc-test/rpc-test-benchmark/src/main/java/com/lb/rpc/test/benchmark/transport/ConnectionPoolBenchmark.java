@@ -0,0 +1,76 @@
+package com.lb.rpc.test.benchmark.transport;
+
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.test.benchmark.loopback.LoopbackRpc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个服务提供者实例的连接数和连接选择策略对吞吐量的影响，
+ * 每轮结束时输出连接池实际建立的连接数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ConnectionPoolBenchmark {
+
+    @Param({"1", "4"})
+    private int connectionsPerEndpoint;
+
+    @Param({"roundrobin", "leastpending"})
+    private String connectionSelectStrategy;
+
+    private LoopbackRpc loopbackRpc;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        ConsumerConfig consumerConfig = new ConsumerConfig();
+        consumerConfig.setConnectionsPerEndpoint(connectionsPerEndpoint);
+        consumerConfig.setConnectionSelectStrategy(connectionSelectStrategy);
+        loopbackRpc = new LoopbackRpc("protostuff");
+        loopbackRpc.start(new ServerConfig(), consumerConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%nconnectionsPerEndpoint=%d strategy=%s activeConnections=%d%n",
+                connectionsPerEndpoint, connectionSelectStrategy,
+                loopbackRpc.getConsumerHandlerPool().getActiveHandlers().size());
+        loopbackRpc.close();
+    }
+
+    @Benchmark
+    public Object echo() throws Exception {
+        return loopbackRpc.call("zhiyu");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ConnectionPoolBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
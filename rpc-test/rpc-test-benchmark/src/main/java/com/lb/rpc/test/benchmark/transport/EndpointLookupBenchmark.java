@@ -0,0 +1,74 @@
+package com.lb.rpc.test.benchmark.transport;
+
+import com.lb.rpc.consumer.common.endpoint.EndpointKey;
+import com.lb.rpc.protocol.meta.ServiceMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每次调用查找服务提供者连接缓存的开销对比：拼接"ip_port"字符串作为key与预先计算hash的EndpointKey
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EndpointLookupBenchmark {
+
+    @Param({"16", "256"})
+    private int endpoints;
+
+    private final Map<String, Object> stringKeyMap = new ConcurrentHashMap<>();
+
+    private final Map<EndpointKey, Object> endpointKeyMap = new ConcurrentHashMap<>();
+
+    private ServiceMeta serviceMeta;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < endpoints; i++) {
+            String host = "192.168.1." + i;
+            Object value = new Object();
+            stringKeyMap.put(host.concat("_").concat(String.valueOf(20880)), value);
+            endpointKeyMap.put(new EndpointKey(host, 20880), value);
+        }
+        serviceMeta = new ServiceMeta();
+        serviceMeta.setServiceAddr("192.168.1." + (endpoints / 2));
+        serviceMeta.setServicePort(20880);
+    }
+
+    @Benchmark
+    public Object stringKey() {
+        return stringKeyMap.get(serviceMeta.getServiceAddr().concat("_").concat(String.valueOf(serviceMeta.getServicePort())));
+    }
+
+    @Benchmark
+    public Object endpointKey() {
+        return endpointKeyMap.get(EndpointKey.of(serviceMeta));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EndpointLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,77 @@
+package com.lb.rpc.test.benchmark.transport;
+
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.test.benchmark.loopback.LoopbackRpc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刷新合并对吞吐量和flush次数的影响，通过main方法分别以1、16、256个并发调用方运行，
+ * 每轮结束时输出平均每次调用在服务提供者和消费者两端触发的flush次数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FlushConsolidationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean flushConsolidation;
+
+    private LoopbackRpc loopbackRpc;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setFlushConsolidation(flushConsolidation);
+        ConsumerConfig consumerConfig = new ConsumerConfig();
+        consumerConfig.setFlushConsolidation(flushConsolidation);
+        loopbackRpc = new LoopbackRpc("protostuff");
+        loopbackRpc.start(serverConfig, consumerConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long calls = Math.max(loopbackRpc.getCalls(), 1);
+        System.out.printf("%nflushConsolidation=%s calls=%d server flushes/call=%.3f client flushes/call=%.3f%n",
+                flushConsolidation, calls,
+                (double) loopbackRpc.getServerFlushes() / calls,
+                (double) loopbackRpc.getClientFlushes() / calls);
+        loopbackRpc.close();
+    }
+
+    @Benchmark
+    public Object echo() throws Exception {
+        return loopbackRpc.call("zhiyu");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 16, 256}) {
+            Options options = new OptionsBuilder()
+                    .include(FlushConsolidationBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.lb.rpc.test.benchmark.transport;
+
+import com.lb.rpc.common.exception.InFlightLimitException;
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.consumer.common.window.InFlightWindow;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.proxy.api.future.RPCFuture;
+import com.lb.rpc.test.benchmark.loopback.LoopbackRpc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 同一连接上流水线发送请求时在途窗口的影响，每次调用连续发送BATCH个请求后再等待全部响应，
+ * 每轮结束时输出窗口的峰值占用、等待次数和拒绝次数
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class InFlightWindowBenchmark {
+
+    private static final int BATCH = 256;
+
+    @Param({"0", "64", "512"})
+    private int maxInFlightPerConnection;
+
+    @Param({"block", "failfast"})
+    private String inFlightPolicy;
+
+    private LoopbackRpc loopbackRpc;
+
+    private final LongAdder rejected = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        ConsumerConfig consumerConfig = new ConsumerConfig();
+        consumerConfig.setMaxInFlightPerConnection(maxInFlightPerConnection);
+        consumerConfig.setInFlightPolicy(inFlightPolicy);
+        loopbackRpc = new LoopbackRpc("protostuff");
+        loopbackRpc.start(new ServerConfig(), consumerConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        InFlightWindow inFlightWindow = loopbackRpc.getConsumerHandlerPool().getActiveHandlers().get(0).getInFlightWindow();
+        System.out.printf("%nmaxInFlightPerConnection=%d policy=%s peakInFlight=%d blocked=%d rejected=%d%n",
+                maxInFlightPerConnection, inFlightPolicy, inFlightWindow.getPeakInFlight(),
+                inFlightWindow.getBlockedCount(), rejected.sum());
+        loopbackRpc.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int pipelined() throws Exception {
+        List<RPCFuture> futures = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            try {
+                futures.add(loopbackRpc.send("zhiyu"));
+            } catch (InFlightLimitException e) {
+                rejected.increment();
+            }
+        }
+        for (RPCFuture future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        return futures.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(InFlightWindowBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
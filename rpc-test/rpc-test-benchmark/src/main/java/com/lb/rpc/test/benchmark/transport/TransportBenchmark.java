@@ -0,0 +1,72 @@
+package com.lb.rpc.test.benchmark.transport;
+
+import com.lb.rpc.consumer.common.config.ConsumerConfig;
+import com.lb.rpc.provider.common.config.ServerConfig;
+import com.lb.rpc.test.benchmark.loopback.LoopbackRpc;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NIO与epoll传输的吞吐量和调用延迟对比，服务提供者和消费者使用相同的传输方式，
+ * 通过main方法分别以1、16个并发调用方运行，当前系统不支持epoll时epoll参数会回退到NIO
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+
+    @Param({"nio", "epoll"})
+    private String transportType;
+
+    private LoopbackRpc loopbackRpc;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        ServerConfig serverConfig = new ServerConfig();
+        serverConfig.setTransportType(transportType);
+        ConsumerConfig consumerConfig = new ConsumerConfig();
+        consumerConfig.setTransportType(transportType);
+        loopbackRpc = new LoopbackRpc("protostuff");
+        loopbackRpc.start(serverConfig, consumerConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loopbackRpc.close();
+    }
+
+    @Benchmark
+    public Object echo() throws Exception {
+        return loopbackRpc.call("zhiyu");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 16}) {
+            Options options = new OptionsBuilder()
+                    .include(TransportBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
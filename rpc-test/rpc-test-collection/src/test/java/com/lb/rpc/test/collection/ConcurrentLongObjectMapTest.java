@@ -0,0 +1,204 @@
+package com.lb.rpc.test.collection;
+
+import com.lb.rpc.common.collection.ConcurrentLongObjectMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentLongObjectMapTest {
+
+    /**
+     * 单分段、每段16个槽位，方便构造探测链
+     */
+    private static final int SEGMENT_CAPACITY = 16;
+
+    /**
+     * 插入数量远超初始容量，多次扩容后put、get、remove结果正确
+     */
+    @Test
+    public void testPutGetRemoveAcrossResize() {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>(4, 8);
+        int count = 10000;
+        for (long key = 0; key < count; key++) {
+            assertNull(map.put(key, "v" + key));
+        }
+        assertEquals(count, map.size());
+        for (long key = 0; key < count; key++) {
+            assertEquals("v" + key, map.get(key));
+        }
+        for (long key = 0; key < count; key += 2) {
+            assertEquals("v" + key, map.remove(key));
+        }
+        assertEquals(count / 2, map.size());
+        for (long key = 0; key < count; key++) {
+            if (key % 2 == 0) {
+                assertNull(map.get(key));
+                assertNull(map.remove(key));
+            } else {
+                assertEquals("v" + key, map.get(key));
+            }
+        }
+        for (long key = 1; key < count; key += 2) {
+            assertEquals("v" + key, map.remove(key));
+        }
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * 探测链从表尾绕回表头，删除链中间的元素后，后面的元素仍然能找到
+     */
+    @Test
+    public void testRemoveInWrappedProbeChain() {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>(1, SEGMENT_CAPACITY / 2);
+        int last = SEGMENT_CAPACITY - 1;
+        // 三个key初始位置都在表尾，一个key初始位置在表头：依次占据15、0、1、2
+        long[] tailKeys = findKeys(last, 3);
+        long headKey = findKeys(0, 1)[0];
+        map.put(tailKeys[0], "a");
+        map.put(tailKeys[1], "b");
+        map.put(headKey, "c");
+        map.put(tailKeys[2], "d");
+
+        assertEquals("b", map.remove(tailKeys[1]));
+        assertNull(map.get(tailKeys[1]));
+        assertEquals("a", map.get(tailKeys[0]));
+        assertEquals("c", map.get(headKey));
+        assertEquals("d", map.get(tailKeys[2]));
+
+        assertEquals("a", map.remove(tailKeys[0]));
+        assertEquals("c", map.get(headKey));
+        assertEquals("d", map.get(tailKeys[2]));
+        assertEquals(2, map.size());
+
+        assertEquals("d", map.remove(tailKeys[2]));
+        assertEquals("c", map.remove(headKey));
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * 覆盖已有key时返回之前的value，数量不变
+     */
+    @Test
+    public void testOverwriteReturnsPrevious() {
+        ConcurrentLongObjectMap<String> map = new ConcurrentLongObjectMap<>();
+        assertNull(map.put(1L, "a"));
+        assertEquals("a", map.put(1L, "b"));
+        assertEquals("b", map.put(1L, "c"));
+        assertEquals(1, map.size());
+        assertEquals("c", map.get(1L));
+        assertEquals("c", map.remove(1L));
+        assertNull(map.remove(1L));
+    }
+
+    /**
+     * keys()返回调用时所有的key，之后的修改不影响已返回的快照
+     */
+    @Test
+    public void testKeysSnapshot() {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(4, 8);
+        assertEquals(0, map.keys().length);
+        long[] expected = new long[1000];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i * 7L - 300;
+            map.put(expected[i], expected[i]);
+        }
+        long[] keys = map.keys();
+        long[] copy = keys.clone();
+        Arrays.sort(keys);
+        Arrays.sort(expected);
+        assertArrayEquals(expected, keys);
+
+        for (long key : expected) {
+            map.remove(key);
+        }
+        map.put(Long.MAX_VALUE, Long.MAX_VALUE);
+        long[] sorted = copy.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(expected, sorted);
+        assertArrayEquals(new long[]{Long.MAX_VALUE}, map.keys());
+    }
+
+    /**
+     * 多线程随机put、remove，同样的操作作用到ConcurrentHashMap上，结束后两者内容一致。
+     * 每个线程只操作自己的key，key交错分布到所有分段，分段锁和扩容在线程之间是共享的
+     */
+    @Test
+    public void testConcurrentPutRemoveAgainstConcurrentHashMap() throws Exception {
+        ConcurrentLongObjectMap<Long> map = new ConcurrentLongObjectMap<>(4, 16);
+        Map<Long, Long> expected = new ConcurrentHashMap<>();
+        int threads = 8;
+        int keysPerThread = 2000;
+        int operations = 200000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Throwable> errors = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < operations; i++) {
+                        long key = (long) random.nextInt(keysPerThread) * threads + id;
+                        if (random.nextBoolean()) {
+                            long value = random.nextLong();
+                            assertEquals(expected.put(key, value), map.put(key, value));
+                        } else {
+                            assertEquals(expected.remove(key), map.remove(key));
+                        }
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertTrue(errors.toString(), errors.isEmpty());
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Set<Long> keys = new HashSet<>();
+        for (long key : map.keys()) {
+            keys.add(key);
+        }
+        assertEquals(expected.keySet(), keys);
+    }
+
+    /**
+     * 查找初始位置为home的key，与ConcurrentLongObjectMap中的hash保持一致
+     */
+    private static long[] findKeys(int home, int count) {
+        long[] keys = new long[count];
+        int found = 0;
+        for (long key = 0; found < count; key++) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+            if (((int) hash & (SEGMENT_CAPACITY - 1)) == home) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}